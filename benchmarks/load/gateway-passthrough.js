@@ -0,0 +1,66 @@
+// Нагрузочный сценарий для сквозной передачи ответов сервера через шлюз.
+// Запуск: k6 run -e GATEWAY_URL=http://localhost:8080 benchmarks/load/gateway-passthrough.js
+// Итог: задержки p50/p95/p99 по каждому запросу и пропускная способность (http_reqs, запросов в секунду).
+import http from 'k6/http';
+import { check } from 'k6';
+
+const GATEWAY_URL = __ENV.GATEWAY_URL || 'http://localhost:8080';
+const VUS = Number(__ENV.VUS || 64);
+const DURATION = __ENV.DURATION || '60s';
+
+export const options = {
+    scenarios: {
+        passthrough: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: DURATION,
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        'http_req_failed': ['rate<0.01'],
+        // k6 считает метрики по тегу только для порогов, поэтому p99 по запросам заведены как пороги
+        'http_req_duration{name:user}': ['p(99)>=0'],
+        'http_req_duration{name:item}': ['p(99)>=0'],
+    },
+};
+
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+export function setup() {
+    const email = `load-${Date.now()}@shareit.ru`;
+    const user = http.post(`${GATEWAY_URL}/users`, JSON.stringify({ name: 'load', email }), { headers: JSON_HEADERS });
+    check(user, { 'user created': (r) => r.status === 200 });
+    const userId = user.json('id');
+
+    const item = http.post(`${GATEWAY_URL}/items`, JSON.stringify({
+        name: 'Дрель',
+        description: 'Ударная дрель для нагрузочного теста',
+        available: true,
+    }), { headers: Object.assign({ 'X-Sharer-User-Id': String(userId) }, JSON_HEADERS) });
+    check(item, { 'item created': (r) => r.status === 200 });
+
+    return { userId, itemId: item.json('id') };
+}
+
+export default function (data) {
+    const headers = { 'X-Sharer-User-Id': String(data.userId) };
+    check(http.get(`${GATEWAY_URL}/users/${data.userId}`, { headers, tags: { name: 'user' } }),
+        { 'user 200': (r) => r.status === 200 });
+    check(http.get(`${GATEWAY_URL}/items/${data.itemId}`, { headers, tags: { name: 'item' } }),
+        { 'item 200': (r) => r.status === 200 });
+}
+
+export function handleSummary(data) {
+    const report = {
+        requestsPerSecond: data.metrics.http_reqs.values.rate,
+        p99Millis: {
+            user: data.metrics['http_req_duration{name:user}'].values['p(99)'],
+            item: data.metrics['http_req_duration{name:item}'].values['p(99)'],
+        },
+    };
+    return {
+        stdout: JSON.stringify(report, null, 2) + '\n',
+        'gateway-passthrough.json': JSON.stringify(data, null, 2),
+    };
+}
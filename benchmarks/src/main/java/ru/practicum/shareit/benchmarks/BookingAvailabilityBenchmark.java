@@ -0,0 +1,71 @@
+package ru.practicum.shareit.benchmarks;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка свободного периода: {@link BookingIntervalIndex} против запроса на пересечение в базе.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingAvailabilityBenchmark {
+    private static final int PROBES = 1024;
+
+    private BookingIntervalIndex intervalIndex;
+    private EntityManagerFactory entityManagerFactory;
+    private long[] itemIds;
+    private LocalDateTime[] starts;
+    private int next;
+
+    @Setup
+    public void setUp(SeededServer server) {
+        intervalIndex = server.bean(BookingIntervalIndex.class);
+        entityManagerFactory = server.bean(EntityManagerFactory.class);
+
+        Random random = new Random(7);
+        itemIds = new long[PROBES];
+        starts = new LocalDateTime[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            itemIds[i] = 1 + random.nextInt(server.items);
+            starts[i] = server.now.plusHours(random.nextInt(24 * 365));
+        }
+    }
+
+    @Benchmark
+    public boolean intervalIndex() {
+        int i = next++ & (PROBES - 1);
+        return intervalIndex.isFree(itemIds[i], starts[i], starts[i].plusDays(1));
+    }
+
+    @Benchmark
+    public boolean database() {
+        int i = next++ & (PROBES - 1);
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery("SELECT COUNT(b) FROM Booking b " +
+                            "WHERE b.item.id = :itemId " +
+                            "AND b.status IN :statuses " +
+                            "AND b.start < :end " +
+                            "AND b.end > :start", Long.class)
+                    .setParameter("itemId", itemIds[i])
+                    .setParameter("statuses", EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED))
+                    .setParameter("start", starts[i])
+                    .setParameter("end", starts[i].plusDays(1))
+                    .getSingleResult() == 0;
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.benchmarks;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Страница бронирований пользователя: проекция {@link BookingShortDto} против прежнего пути
+ * через управляемые сущности и {@link BookingMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingProjectionBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final long USER_ID = 1L;
+
+    private BookingRepository bookingRepository;
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup
+    public void setUp(SeededServer server) {
+        bookingRepository = server.bean(BookingRepository.class);
+        entityManagerFactory = server.bean(EntityManagerFactory.class);
+    }
+
+    @Benchmark
+    public List<BookingShortDto> projection(SeededServer server) {
+        return bookingRepository.findByUserIdAndState(USER_ID, BookingState.ALL, server.now, null, PAGE_SIZE + 1);
+    }
+
+    @Benchmark
+    public List<BookingDto> entities() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery("SELECT b FROM Booking b " +
+                            "JOIN FETCH b.item i " +
+                            "JOIN FETCH i.owner " +
+                            "JOIN FETCH b.user " +
+                            "WHERE b.user.id = :userId " +
+                            "ORDER BY b.start DESC, b.id DESC", Booking.class)
+                    .setParameter("userId", USER_ID)
+                    .setMaxResults(PAGE_SIZE + 1)
+                    .getResultStream()
+                    .map(BookingMapper.INSTANCE::toBookingDto)
+                    .toList();
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выборки бронирований по состоянию, как их выполняют {@code GET /bookings} и {@code GET /bookings/owner}.
+ * Страница {@code deep} начинается с курсора из середины списка пользователя.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingQueryBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final long USER_ID = 1L;
+
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    public BookingState state;
+
+    private BookingRepository bookingRepository;
+    private KeysetCursor middle;
+
+    @Setup
+    public void setUp(SeededServer server) {
+        bookingRepository = server.bean(BookingRepository.class);
+
+        List<BookingShortDto> all = bookingRepository.findByUserIdAndState(USER_ID, state, server.now, null, null);
+        if (!all.isEmpty()) {
+            BookingShortDto row = all.get(all.size() / 2);
+            middle = new KeysetCursor(row.start(), row.id());
+        }
+    }
+
+    @Benchmark
+    public List<BookingShortDto> byBooker(SeededServer server) {
+        return bookingRepository.findByUserIdAndState(USER_ID, state, server.now, null, PAGE_SIZE + 1);
+    }
+
+    @Benchmark
+    public List<BookingShortDto> byBookerDeep(SeededServer server) {
+        return bookingRepository.findByUserIdAndState(USER_ID, state, server.now, middle, PAGE_SIZE + 1);
+    }
+
+    @Benchmark
+    public List<BookingShortDto> byOwner(SeededServer server) {
+        return bookingRepository.findByItemOwnerIdAndState(USER_ID, state, server.now, null, PAGE_SIZE + 1);
+    }
+}
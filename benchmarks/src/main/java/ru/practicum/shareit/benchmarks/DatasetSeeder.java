@@ -0,0 +1,72 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Наполняет пустую схему детерминированным набором данных: пользователи, вещи и бронирования.
+ * Вставка идёт пачками через JDBC, минуя JPA, чтобы подготовка не влияла на замеры.
+ */
+public class DatasetSeeder {
+    static final String[] WORDS = {
+            "дрель", "перфоратор", "шуруповёрт", "лестница", "палатка", "велосипед", "самокат", "лыжи",
+            "сноуборд", "мангал", "котелок", "фонарь", "рюкзак", "спальник", "пила", "рубанок",
+            "болгарка", "компрессор", "удлинитель", "стремянка", "проектор", "колонка", "гитара", "камера",
+            "штатив", "коляска", "автокресло", "тележка", "газонокосилка", "триммер", "мойка", "пылесос"
+    };
+    private static final BookingStatus[] STATUSES = BookingStatus.values();
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random;
+
+    public DatasetSeeder(JdbcTemplate jdbcTemplate, long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.random = new Random(seed);
+    }
+
+    public void seed(int users, int items, int bookings, LocalDateTime now) {
+        insert("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", users,
+                id -> new Object[]{id, "user" + id, "user" + id + "@shareit.ru"});
+        insert("INSERT INTO items (id, name, description, is_available, owner_id) VALUES (?, ?, ?, ?, ?)", items,
+                id -> new Object[]{id, word() + " " + id, word() + " и " + word() + ", почти новое", true,
+                        1 + (id - 1) % users});
+        insert("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) VALUES (?, ?, ?, ?, ?, ?)",
+                bookings, id -> {
+                    LocalDateTime start = now.plusHours(random.nextInt(24 * 365 * 2) - 24 * 365);
+                    LocalDateTime end = start.plusHours(1 + random.nextInt(72));
+                    return new Object[]{id, Timestamp.valueOf(start), Timestamp.valueOf(end),
+                            1 + random.nextInt(items), 1 + random.nextInt(users),
+                            STATUSES[random.nextInt(STATUSES.length)].name()};
+                });
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private void insert(String sql, int count, RowFactory rows) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= count; id++) {
+            batch.add(rows.row(id));
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowFactory {
+        Object[] row(long id);
+    }
+}
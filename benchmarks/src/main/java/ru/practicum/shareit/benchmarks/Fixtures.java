@@ -0,0 +1,91 @@
+package ru.practicum.shareit.benchmarks;
+
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Графы объектов в памяти для замеров, которым не нужна база.
+ */
+final class Fixtures {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private Fixtures() {
+    }
+
+    static Item item(int comments) {
+        User owner = user(1);
+        User booker = user(2);
+        Item item = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Ударная дрель с набором свёрл")
+                .available(true)
+                .owner(owner)
+                .request(ItemRequest.builder()
+                        .id(1L)
+                        .description("Нужна дрель на выходные")
+                        .user(booker)
+                        .created(NOW.minusDays(10))
+                        .build())
+                .build();
+        item.setLastBooking(booking(1L, item, booker, NOW.minusDays(3)));
+        item.setNextBooking(booking(2L, item, booker, NOW.plusDays(3)));
+
+        List<Comment> list = new ArrayList<>(comments);
+        for (long id = 1; id <= comments; id++) {
+            list.add(Comment.builder()
+                    .id(id)
+                    .text("Отличная дрель, всё просверлила")
+                    .item(item)
+                    .user(booker)
+                    .createdAt(NOW.minusDays(id))
+                    .build());
+        }
+        item.setComments(list);
+        return item;
+    }
+
+    static Booking booking() {
+        Item item = item(0);
+        return booking(3L, item, item.getLastBooking().getUser(), NOW.plusDays(7));
+    }
+
+    static List<BookingShortDto> bookingPage(int size) {
+        List<BookingShortDto> page = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            LocalDateTime start = NOW.minusDays(id);
+            page.add(new BookingShortDto(id, start, start.plusDays(1), BookingStatus.APPROVED,
+                    id, "Дрель", "Ударная", true, null, 1L, "user1", "user1@shareit.ru",
+                    2L, "user2", "user2@shareit.ru"));
+        }
+        return page;
+    }
+
+    private static User user(long id) {
+        return User.builder()
+                .id(id)
+                .name("user" + id)
+                .email("user" + id + "@shareit.ru")
+                .build();
+    }
+
+    private static Booking booking(Long id, Item item, User booker, LocalDateTime start) {
+        return Booking.builder()
+                .id(id)
+                .start(start)
+                .end(start.plusDays(1))
+                .item(item)
+                .user(booker)
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+}
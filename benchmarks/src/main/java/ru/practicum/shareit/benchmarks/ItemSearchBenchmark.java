@@ -0,0 +1,46 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.RepositoryItemSearchEngine;
+import ru.practicum.shareit.item.search.TrigramItemSearchEngine;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск вещей: триграммный индекс в памяти против {@code LIKE} в базе.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemSearchBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"дрель", "кос", "почти новое"})
+    public String text;
+
+    private ItemSearchEngine trigram;
+    private ItemSearchEngine database;
+
+    @Setup
+    public void setUp(SeededServer server) {
+        trigram = server.bean(TrigramItemSearchEngine.class);
+        database = new RepositoryItemSearchEngine(server.bean(ItemRepository.class));
+    }
+
+    @Benchmark
+    public List<Item> trigram() {
+        return trigram.search(text, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Item> database() {
+        return database.search(text, 0, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Сериализация ответов тем же набором модулей, что регистрирует Spring Boot.
+ * {@code ItemDto} тянет за собой сущности с {@code @JsonIdentityInfo}, список бронирований
+ * сравнивается в виде сущностей и в виде проекций {@link BookingShortDto}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "10"})
+    public int comments;
+
+    private ObjectWriter writer;
+    private ItemDto item;
+    private List<BookingDto> bookings;
+    private List<BookingShortDto> shortBookings;
+
+    @Setup
+    public void setUp() {
+        writer = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writer();
+        item = ItemMapper.INSTANCE.toItemDto(Fixtures.item(comments));
+        bookings = Stream.generate(Fixtures::booking)
+                .limit(PAGE_SIZE)
+                .map(BookingMapper.INSTANCE::toBookingDto)
+                .toList();
+        shortBookings = Fixtures.bookingPage(PAGE_SIZE);
+    }
+
+    @Benchmark
+    public byte[] itemDto() throws JsonProcessingException {
+        return writer.writeValueAsBytes(item);
+    }
+
+    @Benchmark
+    public byte[] bookingDtoPage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(bookings);
+    }
+
+    @Benchmark
+    public byte[] bookingShortDtoPage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(shortBookings);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"0", "10"})
+    public int comments;
+
+    private Item item;
+    private Booking booking;
+
+    @Setup
+    public void setUp() {
+        item = Fixtures.item(comments);
+        booking = Fixtures.booking();
+    }
+
+    @Benchmark
+    public ItemDto toItemDto() {
+        return ItemMapper.INSTANCE.toItemDto(item);
+    }
+
+    @Benchmark
+    public BookingDto toBookingDto() {
+        return BookingMapper.INSTANCE.toBookingDto(booking);
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.item.search.TrigramItemSearchEngine;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Поднимает контекст сервера на встроенной H2 и наполняет её через {@link DatasetSeeder}.
+ * Размер набора задаётся параметрами JMH, например {@code -p items=10000 -p bookings=200000}.
+ */
+@State(Scope.Benchmark)
+public class SeededServer {
+    @Param("1000")
+    public int items;
+
+    @Param("20000")
+    public int bookings;
+
+    public final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmarks-" + System.nanoTime(),
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN");
+
+        new DatasetSeeder(bean(JdbcTemplate.class), 42).seed(users(), items, bookings, now);
+        // Индекс поиска загружается на ApplicationReadyEvent, то есть до наполнения базы
+        bean(TrigramItemSearchEngine.class).load();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public int users() {
+        return Math.max(10, items / 10);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -3,25 +3,34 @@ package ru.practicum.shareit.booking;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl,
+                         RestTemplateBuilder builder,
+                         ClientHttpRequestFactory requestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
     }
@@ -39,24 +48,40 @@ public class BookingClient extends BaseClient {
         return patch(path, userId);
     }
 
+    public ResponseEntity<Object> updateBookings(long userId, List<BookingDecisionDto> decisions) {
+        return patch("/bulk", userId, decisions);
+    }
+
     public ResponseEntity<Object> getBooking(long userId, long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookingsByUser(long userId, BookingState state) {
+    public ResponseEntity<Object> getBookingsByUser(long userId, BookingState state, String cursor, Integer size) {
         String path = UriComponentsBuilder.fromPath("")
                 .queryParam("state", state.name())
+                .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
+                .queryParamIfPresent("size", Optional.ofNullable(size))
                 .toUriString();
 
         return get(path, userId, null);
     }
 
-    public ResponseEntity<Object> getBookingsByOwner(long userId, BookingState state) {
+    public ResponseEntity<Object> getBookingsByOwner(long userId, BookingState state, String cursor, Integer size) {
         String path = UriComponentsBuilder.fromPath("/owner")
                 .queryParam("state", state.name())
+                .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
+                .queryParamIfPresent("size", Optional.ofNullable(size))
                 .toUriString();
 
         return get(path, userId);
     }
 
+    public void exportBookingsByOwner(long userId, BookingState state, ServerHttpResponse target) throws IOException {
+        String path = UriComponentsBuilder.fromPath("/owner/export")
+                .queryParam("state", state.name())
+                .toUriString();
+
+        stream(HttpMethod.GET, path, userId, null, null, target);
+    }
+
 }
@@ -1,21 +1,30 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.model.BookingState;
 
+import java.io.IOException;
+import java.util.List;
+
 @RestController
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
 @Slf4j
 @Validated
 public class BookingController {
+    private static final int MAX_BULK_SIZE = 100;
 
     private final BookingClient bookingClient;
 
@@ -32,6 +41,13 @@ public class BookingController {
         return bookingClient.updateBooking(userId, bookingId, approved);
     }
 
+    @PatchMapping("/bulk")
+    public ResponseEntity<Object> updateBookings(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                                 @RequestBody @NotEmpty @Size(max = MAX_BULK_SIZE)
+                                                 List<@Valid BookingDecisionDto> decisions) {
+        return bookingClient.updateBookings(userId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
                                              @PathVariable @Positive Long bookingId) {
@@ -40,13 +56,24 @@ public class BookingController {
 
     @GetMapping
     public ResponseEntity<Object> getBookingsByUser(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
-                                                    @RequestParam(defaultValue = "ALL") BookingState state) {
-        return bookingClient.getBookingsByUser(userId, state);
+                                                    @RequestParam(defaultValue = "ALL") BookingState state,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) @Positive Integer size) {
+        return bookingClient.getBookingsByUser(userId, state, cursor, size);
     }
 
     @GetMapping("/owner")
     public ResponseEntity<Object> getBookingsByOwner(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
-                                                     @RequestParam(defaultValue = "ALL") BookingState state) {
-        return bookingClient.getBookingsByOwner(userId, state);
+                                                     @RequestParam(defaultValue = "ALL") BookingState state,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) @Positive Integer size) {
+        return bookingClient.getBookingsByOwner(userId, state, cursor, size);
+    }
+
+    @GetMapping("/owner/export")
+    public void exportBookingsByOwner(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                      @RequestParam(defaultValue = "ALL") BookingState state,
+                                      HttpServletResponse response) throws IOException {
+        bookingClient.exportBookingsByOwner(userId, state, new ServletServerHttpResponse(response));
     }
 }
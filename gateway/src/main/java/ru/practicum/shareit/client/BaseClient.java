@@ -1,15 +1,31 @@
 package ru.practicum.shareit.client;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.http.*;
+import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.List;
-import java.util.Map;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
 
 public class BaseClient {
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "content-length", "upgrade");
+    // Предел по суммарному размеру тел, а не по числу ответов: один список может весить мегабайты
+    private static final long MAX_VALIDATED_BYTES = 8L * 1024 * 1024;
+
     protected final RestTemplate rest;
+    private final SingleFlight<GetRequest, ResponseEntity<byte[]>> inFlightGets = new SingleFlight<>();
+    // Для вещей тело здесь и в ResponseCache один и тот же массив, копии не создаются
+    private final Cache<String, ValidatedResponse> validated = Caffeine.newBuilder()
+            .maximumWeight(MAX_VALIDATED_BYTES)
+            .weigher((String key, ValidatedResponse response) -> key.length() + response.weight())
+            .build();
 
     public BaseClient(RestTemplate rest) {
         this.rest = rest;
@@ -27,6 +43,47 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    /**
+     * GET с проверкой ETag на сервере. Заголовок If-None-Match клиента передаётся как есть. Без него
+     * сервер получает тег последнего ответа по этому пути, и на 304 клиенту уходит сохранённое тело.
+     */
+    protected ResponseEntity<Object> getConditional(String path, @Nullable Long userId,
+                                                    @Nullable String ifNoneMatch) {
+        String key = userId + " " + path;
+        ValidatedResponse cached = ifNoneMatch == null ? validated.getIfPresent(key) : null;
+        HttpHeaders headers = defaultHeaders(userId);
+        if (ifNoneMatch != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        } else if (cached != null) {
+            headers.setIfNoneMatch(cached.headers().getETag());
+        }
+
+        ResponseEntity<byte[]> response = exchange(HttpMethod.GET, path, null, new HttpEntity<>(headers));
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+            return prepareGatewayResponse(HttpStatus.OK, cached.headers(), cached.body());
+        }
+        if (response.getStatusCode() == HttpStatus.OK && response.getHeaders().getETag() != null) {
+            validated.put(key, new ValidatedResponse(response.getHeaders(), response.getBody()));
+        } else if (response.getStatusCode() != HttpStatus.NOT_MODIFIED) {
+            validated.invalidate(key);
+        }
+        return prepareGatewayResponse(response.getStatusCode(), response.getHeaders(), response.getBody());
+    }
+
+    protected static ResponseEntity<Object> notModifiedIfMatches(ResponseEntity<Object> response,
+                                                                 @Nullable String ifNoneMatch) {
+        String etag = response.getHeaders().getETag();
+        if (ifNoneMatch == null || etag == null || response.getStatusCode() != HttpStatus.OK) {
+            return response;
+        }
+        HttpHeaders conditions = new HttpHeaders();
+        conditions.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        if (!conditions.getIfNoneMatch().contains(etag) && !conditions.getIfNoneMatch().contains("*")) {
+            return response;
+        }
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -75,20 +132,72 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Передаёт тело запроса на сервер и ответ сервера клиенту потоком, не собирая их в памяти.
+     */
+    protected void stream(HttpMethod method, String path, long userId, @Nullable MediaType contentType,
+                          @Nullable InputStream body, ServerHttpResponse target) throws IOException {
+        try {
+            rest.execute(path, method, request -> {
+                HttpHeaders headers = request.getHeaders();
+                headers.set("X-Sharer-User-Id", String.valueOf(userId));
+                headers.setAccept(List.of(MediaType.ALL));
+                if (body != null) {
+                    headers.setContentType(contentType);
+                    if (request instanceof StreamingHttpOutputMessage streaming) {
+                        streaming.setBody(body::transferTo);
+                    } else {
+                        body.transferTo(request.getBody());
+                    }
+                }
+            }, response -> {
+                writeResponse(response.getStatusCode(), response.getHeaders(), response.getBody(), target);
+                return null;
+            });
+        } catch (HttpStatusCodeException e) {
+            writeResponse(e.getStatusCode(), e.getResponseHeaders(),
+                    new ByteArrayInputStream(e.getResponseBodyAsByteArray()), target);
+        }
+    }
+
+    private static void writeResponse(HttpStatusCode status, @Nullable HttpHeaders serverHeaders, InputStream body,
+                                      ServerHttpResponse target) throws IOException {
+        target.setStatusCode(status);
+        target.getHeaders().addAll(withoutHopByHop(serverHeaders));
+        body.transferTo(target.getBody());
+        target.flush();
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
-        ResponseEntity<Object> shareitServerResponse;
+        ResponseEntity<byte[]> shareitServerResponse = exchange(method, path, parameters, requestEntity);
+        return prepareGatewayResponse(shareitServerResponse.getStatusCode(), shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody());
+    }
+
+    private ResponseEntity<byte[]> exchange(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                            HttpEntity<?> requestEntity) {
+        if (method == HttpMethod.GET) {
+            // Одинаковые GET, пришедшие пока первый ждёт сервер, получают его ответ
+            return inFlightGets.execute(new GetRequest(path, parameters, requestEntity.getHeaders()),
+                    () -> send(method, path, parameters, requestEntity));
+        }
+        return send(method, path, parameters, requestEntity);
+    }
+
+    private ResponseEntity<byte[]> send(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                        HttpEntity<?> requestEntity) {
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                return rest.exchange(path, method, requestEntity, byte[].class, parameters);
             }
+            return rest.exchange(path, method, requestEntity, byte[].class);
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return ResponseEntity.status(e.getStatusCode())
+                    .headers(e.getResponseHeaders())
+                    .body(e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -101,18 +210,36 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private static ResponseEntity<Object> prepareGatewayResponse(HttpStatusCode status,
+                                                                 @Nullable HttpHeaders serverHeaders,
+                                                                 @Nullable byte[] body) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status).headers(withoutHopByHop(serverHeaders));
+
+        if (body != null && body.length > 0) {
+            return responseBuilder.body(body);
         }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        return responseBuilder.build();
+    }
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+    private static HttpHeaders withoutHopByHop(@Nullable HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders != null) {
+            serverHeaders.forEach((name, values) -> {
+                if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    headers.addAll(name, values);
+                }
+            });
         }
+        return headers;
+    }
 
-        return responseBuilder.build();
+    private record GetRequest(String path, @Nullable Map<String, Object> parameters, HttpHeaders headers) {
     }
 
+    private record ValidatedResponse(HttpHeaders headers, @Nullable byte[] body) {
+        int weight() {
+            return body == null ? 0 : body.length;
+        }
+    }
 }
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш успешных ответов сервера на публичные GET, ограниченный суммарным размером тел. Ответ старше
+ * ttl ещё stale-while-revalidate отдаётся как есть, а обновляется одним фоновым запросом.
+ * Сбрасывается только записями, прошедшими через этот шлюз; остальные изменения видны через ttl.
+ */
+@Slf4j
+public class ResponseCache {
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Cache<String, CachedResponse> responses;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    // Загрузка, начатая до сброса, не должна вернуть в кэш устаревший ответ
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Counter bytesSaved;
+
+    public ResponseCache(String name, ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumSize().toBytes())
+                .weigher((String key, CachedResponse response) -> key.length() + response.body().length)
+                .expireAfterWrite(properties.getTtl().plus(properties.getStaleWhileRevalidate()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, name);
+        Gauge.builder("cache.weight", responses, cache -> cache.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .tag("cache", name)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.bytesSaved = Counter.builder("cache.bytes.saved")
+                .tag("cache", name)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public ResponseEntity<Object> get(String key, Supplier<ResponseEntity<Object>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached != null) {
+            bytesSaved.increment(cached.body().length);
+            if (System.nanoTime() - cached.storedAt() >= ttlNanos) {
+                revalidate(key, loader);
+            }
+            return cached.toResponse();
+        }
+        long generation = invalidations.get();
+        ResponseEntity<Object> response = loader.get();
+        store(key, response, generation);
+        return response;
+    }
+
+    public void invalidate(String key) {
+        invalidations.incrementAndGet();
+        responses.invalidate(key);
+    }
+
+    public void invalidatePrefix(String prefix) {
+        invalidations.incrementAndGet();
+        responses.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private void revalidate(String key, Supplier<ResponseEntity<Object>> loader) {
+        if (!revalidating.add(key)) {
+            return;
+        }
+        long generation = invalidations.get();
+        Thread.ofVirtual().name("response-cache-revalidate").start(() -> {
+            try {
+                store(key, loader.get(), generation);
+            } catch (RuntimeException e) {
+                log.warn("Не удалось обновить ответ {}: {}", key, e.getMessage());
+            } finally {
+                revalidating.remove(key);
+            }
+        });
+    }
+
+    private void store(String key, ResponseEntity<Object> response, long generation) {
+        if (response.getStatusCode().is4xxClientError()) {
+            responses.invalidate(key);
+            return;
+        }
+        // Ошибки сервера не вытесняют ответ, сохранённый раньше
+        if (response.getStatusCode() != HttpStatus.OK || !(response.getBody() instanceof byte[] body)) {
+            return;
+        }
+        CachedResponse cached = new CachedResponse(response.getHeaders(), body, System.nanoTime());
+        responses.put(key, cached);
+        if (invalidations.get() != generation) {
+            responses.asMap().remove(key, cached);
+        }
+    }
+
+    private record CachedResponse(HttpHeaders headers, byte[] body, long storedAt) {
+        ResponseEntity<Object> toResponse() {
+            return ResponseEntity.ok().headers(headers).body(body);
+        }
+    }
+}
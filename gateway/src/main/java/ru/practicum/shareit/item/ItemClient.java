@@ -1,56 +1,106 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ResponseCacheProperties;
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
+    private static final String SEARCH_PATH = "/search";
+
+    private final ResponseCache responseCache;
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl,
+                      RestTemplateBuilder builder,
+                      ClientHttpRequestFactory requestFactory,
+                      ResponseCacheProperties responseCacheProperties,
+                      MeterRegistry meterRegistry) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
+        this.responseCache = new ResponseCache("items", responseCacheProperties, meterRegistry);
     }
 
     public ResponseEntity<Object> createItem(long userId, ItemCreateDto itemCreateDto) {
-        return post("", userId, itemCreateDto);
+        ResponseEntity<Object> response = post("", userId, itemCreateDto);
+        responseCache.invalidatePrefix(SEARCH_PATH);
+        return response;
+    }
+
+    public ResponseEntity<Object> createItems(long userId, List<ItemCreateDto> itemCreateDtos) {
+        ResponseEntity<Object> response = post("/batch", userId, itemCreateDtos);
+        responseCache.invalidatePrefix(SEARCH_PATH);
+        return response;
+    }
+
+    public void importItems(long userId, InputStream body, ServerHttpResponse target) throws IOException {
+        try {
+            stream(HttpMethod.POST, "/import", userId, MediaType.APPLICATION_NDJSON, body, target);
+        } finally {
+            responseCache.invalidatePrefix(SEARCH_PATH);
+        }
+    }
+
+    public void exportItems(long userId, ServerHttpResponse target) throws IOException {
+        stream(HttpMethod.GET, "/export", userId, null, null, target);
     }
 
     public ResponseEntity<Object> updateItem(long userId, long itemId, ItemDto itemDto) {
-        return patch("/" + itemId, userId, itemDto);
+        ResponseEntity<Object> response = patch("/" + itemId, userId, itemDto);
+        responseCache.invalidate("/" + itemId);
+        responseCache.invalidatePrefix(SEARCH_PATH);
+        return response;
     }
 
-    public ResponseEntity<Object> getItemById(long itemId) {
-        return get("/" + itemId);
+    public ResponseEntity<Object> getItemById(long itemId, @Nullable String ifNoneMatch) {
+        String path = "/" + itemId;
+        // В кэш попадает полный ответ, а тег клиента сверяется уже с ним
+        ResponseEntity<Object> response = responseCache.get(path, () -> getConditional(path, null, null));
+        return notModifiedIfMatches(response, ifNoneMatch);
     }
 
     public ResponseEntity<Object> getItemsByOwner(long userId) {
         return get("/", userId);
     }
 
-    public ResponseEntity<Object> searchItems(String text) {
-        String path = UriComponentsBuilder.fromPath("/search")
+    public ResponseEntity<Object> searchItems(String text, int from, Integer size) {
+        String path = UriComponentsBuilder.fromPath(SEARCH_PATH)
                 .queryParam("text", text)
+                .queryParam("from", from)
+                .queryParamIfPresent("size", Optional.ofNullable(size))
                 .toUriString();
-        return get(path);
+        return responseCache.get(path, () -> get(path));
     }
 
     public ResponseEntity<Object> createComment(long userId, long itemId, CommentCreateDto commentCreateDto) {
-        return post("/" + itemId + "/comment", userId, commentCreateDto);
+        ResponseEntity<Object> response = post("/" + itemId + "/comment", userId, commentCreateDto);
+        responseCache.invalidate("/" + itemId);
+        return response;
     }
 }
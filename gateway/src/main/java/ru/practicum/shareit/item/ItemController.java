@@ -1,8 +1,16 @@
 package ru.practicum.shareit.item;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -10,10 +18,15 @@ import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.IOException;
+import java.util.List;
+
 @Controller
 @RequestMapping("/items")
 @Validated
 public class ItemController {
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final ItemClient itemClient;
 
     public ItemController(ItemClient itemClient) {
@@ -28,6 +41,28 @@ public class ItemController {
         return itemClient.createItem(userId, itemCreateDto);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createItems(
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+            @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<@Valid ItemCreateDto> itemCreateDtos) {
+        return itemClient.createItems(userId, itemCreateDtos);
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importItems(
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        itemClient.importItems(userId, request.getInputStream(), new ServletServerHttpResponse(response));
+    }
+
+    @GetMapping("/export")
+    public void exportItems(
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+            HttpServletResponse response) throws IOException {
+        itemClient.exportItems(userId, new ServletServerHttpResponse(response));
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> updateItem(
             @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
@@ -37,8 +72,10 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@PathVariable @Positive Long itemId) {
-        return itemClient.getItemById(itemId);
+    public ResponseEntity<Object> getItemById(@PathVariable @Positive Long itemId,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                              String ifNoneMatch) {
+        return itemClient.getItemById(itemId, ifNoneMatch);
     }
 
     @GetMapping
@@ -47,8 +84,10 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(@RequestParam String text) {
-        return itemClient.searchItems(text);
+    public ResponseEntity<Object> searchItems(@RequestParam String text,
+                                              @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                              @RequestParam(required = false) @Positive Integer size) {
+        return itemClient.searchItems(text, from, size);
     }
 
     @PostMapping("{itemId}/comment")
@@ -2,6 +2,7 @@ package ru.practicum.shareit.request;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -30,10 +31,19 @@ public class ItemRequestController {
         return itemRequestClient.getUserRequests(userId);
     }
 
+    @GetMapping("/all")
+    public ResponseEntity<Object> getAllRequests(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) @Positive Integer size) {
+        return itemRequestClient.getAllRequests(userId, cursor, size);
+    }
+
     @GetMapping("/{requestId}")
     public ResponseEntity<Object> getRequestById(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
-                                                 @PathVariable @Positive Long requestId) {
-        return itemRequestClient.getRequestById(userId, requestId);
+                                                 @PathVariable @Positive Long requestId,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                 String ifNoneMatch) {
+        return itemRequestClient.getRequestById(userId, requestId, ifNoneMatch);
     }
 
 }
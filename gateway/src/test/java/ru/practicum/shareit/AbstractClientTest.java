@@ -8,6 +8,7 @@ import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Objects;
@@ -25,7 +26,10 @@ public abstract class AbstractClientTest {
     @Mock
     protected RestTemplateBuilder restTemplateBuilder;
 
-    protected ResponseEntity<Object> mockResponse = ResponseEntity.ok().build();
+    @Mock
+    protected ClientHttpRequestFactory requestFactory;
+
+    protected ResponseEntity<byte[]> mockResponse = ResponseEntity.ok().build();
 
     @BeforeEach
     void setUpBase() {
@@ -61,15 +65,15 @@ public abstract class AbstractClientTest {
 
                     return userIdValid && bodyValid && headersValid;
                 }),
-                eq(Object.class));
+                eq(byte[].class));
     }
 
-    protected void mockExchange(String url, HttpMethod method, ResponseEntity<Object> response) {
+    protected void mockExchange(String url, HttpMethod method, ResponseEntity<byte[]> response) {
         when(restTemplate.exchange(
                 eq(url),
                 eq(method),
                 any(HttpEntity.class),
-                eq(Object.class)))
+                eq(byte[].class)))
                 .thenReturn(response);
     }
 }
\ No newline at end of file
@@ -9,9 +9,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import ru.practicum.shareit.AbstractClientTest;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.model.BookingState;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -21,7 +23,7 @@ class BookingClientTest extends AbstractClientTest {
 
     @BeforeEach
     void setUp() {
-        bookingClient = new BookingClient("http://localhost:8080", restTemplateBuilder);
+        bookingClient = new BookingClient("http://localhost:8080", restTemplateBuilder, requestFactory);
     }
 
     @Test
@@ -50,6 +52,20 @@ class BookingClientTest extends AbstractClientTest {
         verifyExchange("/1?approved=true", HttpMethod.PATCH, 1L, null, true);
     }
 
+    @Test
+    void updateBookings() {
+        List<BookingDecisionDto> decisions = List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false));
+
+        mockExchange("/bulk", HttpMethod.PATCH, mockResponse);
+
+        ResponseEntity<Object> response = bookingClient.updateBookings(1L, decisions);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verifyExchange("/bulk", HttpMethod.PATCH, 1L, decisions, true);
+    }
+
     @Test
     void getBooking() {
         mockExchange("/1", HttpMethod.GET, mockResponse);
@@ -64,7 +80,7 @@ class BookingClientTest extends AbstractClientTest {
     void getBookingsByUser() {
         mockExchange("?state=ALL", HttpMethod.GET, mockResponse);
 
-        ResponseEntity<Object> response = bookingClient.getBookingsByUser(1L, BookingState.ALL);
+        ResponseEntity<Object> response = bookingClient.getBookingsByUser(1L, BookingState.ALL, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verifyExchange("?state=ALL", HttpMethod.GET, 1L, null, true);
@@ -74,9 +90,19 @@ class BookingClientTest extends AbstractClientTest {
     void getBookingsByOwner() {
         mockExchange("/owner?state=ALL", HttpMethod.GET, mockResponse);
 
-        ResponseEntity<Object> response = bookingClient.getBookingsByOwner(1L, BookingState.ALL);
+        ResponseEntity<Object> response = bookingClient.getBookingsByOwner(1L, BookingState.ALL, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verifyExchange("/owner?state=ALL", HttpMethod.GET, 1L, null, true);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getBookingsByOwnerWithCursor() {
+        mockExchange("/owner?state=ALL&cursor=abc&size=10", HttpMethod.GET, mockResponse);
+
+        ResponseEntity<Object> response = bookingClient.getBookingsByOwner(1L, BookingState.ALL, "abc", 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verifyExchange("/owner?state=ALL&cursor=abc&size=10", HttpMethod.GET, 1L, null, true);
+    }
+}
@@ -6,15 +6,20 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpResponse;
 import ru.practicum.shareit.AbstractControllerTest;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.model.BookingState;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -82,7 +87,7 @@ class BookingControllerTest extends AbstractControllerTest<BookingClient> {
                         .param("state", "ALL"))
                 .andExpect(status().isOk());
 
-        verify(client).getBookingsByUser(1L, BookingState.ALL);
+        verify(client).getBookingsByUser(1L, BookingState.ALL, null, null);
     }
 
     @Test
@@ -92,7 +97,43 @@ class BookingControllerTest extends AbstractControllerTest<BookingClient> {
                         .param("state", "ALL"))
                 .andExpect(status().isOk());
 
-        verify(client).getBookingsByOwner(1L, BookingState.ALL);
+        verify(client).getBookingsByOwner(1L, BookingState.ALL, null, null);
+    }
+
+    @Test
+    void getBookingsByOwner_whenCursorAndSize_thenStatusOk() throws Exception {
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", "abc")
+                        .param("size", "10"))
+                .andExpect(status().isOk());
+
+        verify(client).getBookingsByOwner(1L, BookingState.ALL, "abc", 10);
+    }
+
+    @Test
+    void exportBookingsByOwner_whenValid_thenStatusOk() throws Exception {
+        mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "PAST"))
+                .andExpect(status().isOk());
+
+        verify(client).exportBookingsByOwner(eq(1L), eq(BookingState.PAST), any(ServerHttpResponse.class));
+    }
+
+    @Test
+    void exportBookingsByOwner_whenUserIdIsZero_thenStatusBadRequest() throws Exception {
+        mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 0))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBookingsByUser_whenSizeIsZero_thenStatusBadRequest() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -154,6 +195,39 @@ class BookingControllerTest extends AbstractControllerTest<BookingClient> {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void updateBookings_whenValid_thenStatusOk() throws Exception {
+        List<BookingDecisionDto> decisions = List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false));
+
+        mockMvc.perform(patch("/bookings/bulk")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(decisions)))
+                .andExpect(status().isOk());
+
+        verify(client).updateBookings(Mockito.eq(1L), anyList());
+    }
+
+    @Test
+    void updateBookings_whenEmpty_thenStatusBadRequest() throws Exception {
+        mockMvc.perform(patch("/bookings/bulk")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updateBookings_whenDecisionIsIncomplete_thenStatusBadRequest() throws Exception {
+        mockMvc.perform(patch("/bookings/bulk")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"bookingId\": 1}]"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void updateBooking_whenMissingApprovedParam_thenStatusBadRequest() throws Exception {
         mockMvc.perform(patch("/bookings/{bookingId}", 1L)
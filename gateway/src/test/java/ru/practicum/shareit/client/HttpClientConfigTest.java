@@ -0,0 +1,40 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class HttpClientConfigTest {
+    private final HttpClientConfig config = new HttpClientConfig();
+
+    @Test
+    void connectionManagerUsesPoolProperties() {
+        ShareItServerHttpProperties properties = new ShareItServerHttpProperties();
+        properties.setMaxTotal(50);
+        properties.setMaxPerRoute(20);
+
+        try (PoolingHttpClientConnectionManager connectionManager =
+                     config.shareItServerConnectionManager(properties)) {
+            assertEquals(50, connectionManager.getMaxTotal());
+            assertEquals(20, connectionManager.getDefaultMaxPerRoute());
+        }
+    }
+
+    @Test
+    void connectionPoolMetricsAreRegistered() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        try (PoolingHttpClientConnectionManager connectionManager =
+                     config.shareItServerConnectionManager(new ShareItServerHttpProperties())) {
+            config.shareItServerConnectionPoolMetrics(connectionManager).bindTo(registry);
+
+            assertNotNull(registry.find("httpcomponents.httpclient.pool.total.connections")
+                    .tag("state", "leased")
+                    .gauge());
+            assertNotNull(registry.find("httpcomponents.httpclient.pool.total.pending").gauge());
+        }
+    }
+}
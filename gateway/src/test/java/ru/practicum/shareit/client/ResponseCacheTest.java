@@ -0,0 +1,99 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResponseCacheTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesCachedResponseAndCountsSavedBytes() {
+        ResponseCache cache = new ResponseCache("items", new ResponseCacheProperties(), registry);
+
+        cache.get("/1", () -> load("first"));
+        ResponseEntity<Object> cached = cache.get("/1", () -> load("second"));
+
+        assertEquals(1, loads.get());
+        assertArrayEquals(bytes("first"), (byte[]) cached.getBody());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "items").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(5.0, registry.get("cache.bytes.saved").tag("cache", "items").counter().count());
+    }
+
+    @Test
+    void invalidatedResponseIsLoadedAgain() {
+        ResponseCache cache = new ResponseCache("items", new ResponseCacheProperties(), registry);
+
+        cache.get("/1", () -> load("first"));
+        cache.get("/search?text=first", () -> load("first"));
+        cache.invalidate("/1");
+        cache.invalidatePrefix("/search");
+
+        assertArrayEquals(bytes("second"), (byte[]) cache.get("/1", () -> load("second")).getBody());
+        assertArrayEquals(bytes("second"), (byte[]) cache.get("/search?text=first", () -> load("second")).getBody());
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void errorResponsesAreNotCached() {
+        ResponseCache cache = new ResponseCache("items", new ResponseCacheProperties(), registry);
+
+        cache.get("/1", () -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(bytes("{}")));
+        cache.get("/1", () -> load("first"));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void staleResponseIsServedWhileRevalidating() throws InterruptedException {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setTtl(Duration.ZERO);
+        properties.setStaleWhileRevalidate(Duration.ofMinutes(1));
+        ResponseCache cache = new ResponseCache("items", properties, registry);
+
+        cache.get("/1", () -> load("first"));
+        ResponseEntity<Object> stale = cache.get("/1", () -> load("second"));
+        assertArrayEquals(bytes("first"), (byte[]) stale.getBody());
+
+        // Обновление идёт в фоне, до его завершения кэш продолжает отдавать старый ответ
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        byte[] body = bytes("first");
+        while (!Arrays.equals(body, bytes("second")) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            body = (byte[]) cache.get("/1", () -> load("second")).getBody();
+        }
+        assertArrayEquals(bytes("second"), body);
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(false);
+        ResponseCache cache = new ResponseCache("items", properties, registry);
+
+        cache.get("/1", () -> load("first"));
+        cache.get("/1", () -> load("second"));
+
+        assertEquals(2, loads.get());
+    }
+
+    private ResponseEntity<Object> load(String body) {
+        loads.incrementAndGet();
+        return ResponseEntity.ok().body(bytes(body));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
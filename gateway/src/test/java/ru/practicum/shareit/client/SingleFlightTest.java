@@ -0,0 +1,90 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    void concurrentCallsShareOneResult() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute("key", this::blockingCall)));
+            awaitInFlight();
+            for (int i = 0; i < 10; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("key", this::blockingCall)));
+            }
+            // Даём остальным вызовам дойти до ожидания
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("result", result.get());
+            }
+        }
+        assertEquals(1, calls.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void failureIsSharedAndNextCallRunsAgain() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = executor.submit(() -> singleFlight.execute("key", () -> {
+                blockingCall();
+                throw new IllegalStateException("сервер недоступен");
+            }));
+            awaitInFlight();
+            Future<String> second = executor.submit(() -> singleFlight.execute("key", this::blockingCall));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertInstanceOf(IllegalStateException.class,
+                    assertThrows(ExecutionException.class, first::get).getCause());
+            assertInstanceOf(IllegalStateException.class,
+                    assertThrows(ExecutionException.class, second::get).getCause());
+        }
+        assertEquals("result", singleFlight.execute("key", this::blockingCall));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void differentKeysAreNotShared() {
+        release.countDown();
+
+        singleFlight.execute("first", this::blockingCall);
+        singleFlight.execute("second", this::blockingCall);
+
+        assertEquals(2, calls.get());
+    }
+
+    private String blockingCall() {
+        calls.incrementAndGet();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "result";
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        while (singleFlight.inFlight() == 0) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -1,18 +1,48 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import ru.practicum.shareit.AbstractClientTest;
+import ru.practicum.shareit.client.ResponseCacheProperties;
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class ItemClientTest extends AbstractClientTest {
@@ -21,7 +51,8 @@ class ItemClientTest extends AbstractClientTest {
 
     @BeforeEach
     void setUp() {
-        itemClient = new ItemClient("http://localhost:8080", restTemplateBuilder);
+        itemClient = new ItemClient("http://localhost:8080", restTemplateBuilder, requestFactory,
+                new ResponseCacheProperties(), new SimpleMeterRegistry());
     }
 
     @Test
@@ -40,6 +71,72 @@ class ItemClientTest extends AbstractClientTest {
         verifyExchange("", HttpMethod.POST, 1L, itemCreateDto, true);
     }
 
+    @Test
+    void createItems() {
+        List<ItemCreateDto> itemCreateDtos = List.of(
+                ItemCreateDto.builder().name("Item").description("Description").available(true).build(),
+                ItemCreateDto.builder().name("Other").description("Description").available(false).build());
+
+        mockExchange("/batch", HttpMethod.POST, mockResponse);
+
+        ResponseEntity<Object> response = itemClient.createItems(1L, itemCreateDtos);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verifyExchange("/batch", HttpMethod.POST, 1L, itemCreateDtos, true);
+    }
+
+    @Test
+    void importItemsStreamsBodyBothWays() throws Exception {
+        byte[] upload = "{\"name\": \"Дрель\"}\n".getBytes(StandardCharsets.UTF_8);
+        byte[] report = "{\"line\":1,\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+        when(restTemplate.execute(eq("/import"), eq(HttpMethod.POST), any(RequestCallback.class),
+                any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    MockClientHttpRequest request = new MockClientHttpRequest();
+                    invocation.<RequestCallback>getArgument(2).doWithRequest(request);
+                    assertEquals("1", request.getHeaders().getFirst("X-Sharer-User-Id"));
+                    assertEquals(MediaType.APPLICATION_NDJSON, request.getHeaders().getContentType());
+                    assertArrayEquals(upload, request.getBodyAsBytes());
+
+                    MockClientHttpResponse response = new MockClientHttpResponse(report, HttpStatus.OK);
+                    response.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+                    return invocation.<ResponseExtractor<?>>getArgument(3).extractData(response);
+                });
+
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        itemClient.importItems(1L, new ByteArrayInputStream(upload), new ServletServerHttpResponse(servletResponse));
+
+        assertEquals(HttpStatus.OK.value(), servletResponse.getStatus());
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, servletResponse.getContentType());
+        assertArrayEquals(report, servletResponse.getContentAsByteArray());
+    }
+
+    @Test
+    void exportItemsStreamsResponse() throws Exception {
+        byte[] export = "{\"id\":1,\"name\":\"Дрель\"}\n".getBytes(StandardCharsets.UTF_8);
+
+        when(restTemplate.execute(eq("/export"), eq(HttpMethod.GET), any(RequestCallback.class),
+                any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    MockClientHttpRequest request = new MockClientHttpRequest();
+                    invocation.<RequestCallback>getArgument(2).doWithRequest(request);
+                    assertEquals("1", request.getHeaders().getFirst("X-Sharer-User-Id"));
+                    assertNull(request.getHeaders().getContentType());
+
+                    MockClientHttpResponse response = new MockClientHttpResponse(export, HttpStatus.OK);
+                    response.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+                    return invocation.<ResponseExtractor<?>>getArgument(3).extractData(response);
+                });
+
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        itemClient.exportItems(1L, new ServletServerHttpResponse(servletResponse));
+
+        assertEquals(HttpStatus.OK.value(), servletResponse.getStatus());
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, servletResponse.getContentType());
+        assertArrayEquals(export, servletResponse.getContentAsByteArray());
+    }
+
     @Test
     void updateItem() {
         ItemDto itemDto = ItemDto.builder().name("Updated item").build();
@@ -56,12 +153,65 @@ class ItemClientTest extends AbstractClientTest {
     void getItemById() {
         mockExchange("/1", HttpMethod.GET, mockResponse);
 
-        ResponseEntity<Object> response = itemClient.getItemById(1L);
+        ResponseEntity<Object> response = itemClient.getItemById(1L, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verifyExchange("/1", HttpMethod.GET, null, null, true);
     }
 
+    @Test
+    void getItemByIdRevalidatesStoredResponse() {
+        ResponseCacheProperties uncached = new ResponseCacheProperties();
+        uncached.setEnabled(false);
+        itemClient = new ItemClient("http://localhost:8080", restTemplateBuilder, requestFactory,
+                uncached, new SimpleMeterRegistry());
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        when(restTemplate.exchange(eq("/1"), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(ResponseEntity.ok().eTag("\"v1\"").body(body))
+                .thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"v1\"").build())
+                .thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"v1\"").build());
+
+        itemClient.getItemById(1L, null);
+        ResponseEntity<Object> revalidated = itemClient.getItemById(1L, null);
+        ResponseEntity<Object> forwarded = itemClient.getItemById(1L, "\"v1\"");
+
+        // Без тега клиента шлюз подставляет свой и отдаёт сохранённое тело, с тегом клиента 304 уходит клиенту
+        assertEquals(HttpStatus.OK, revalidated.getStatusCode());
+        assertArrayEquals(body, (byte[]) revalidated.getBody());
+        assertEquals(HttpStatus.NOT_MODIFIED, forwarded.getStatusCode());
+        assertNull(forwarded.getBody());
+
+        ArgumentCaptor<HttpEntity> requests = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, times(3)).exchange(eq("/1"), eq(HttpMethod.GET), requests.capture(), eq(byte[].class));
+        assertNull(requests.getAllValues().get(0).getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"v1\"", requests.getAllValues().get(1).getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"v1\"", requests.getAllValues().get(2).getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void getItemByIdIsCachedUntilUpdate() {
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        when(restTemplate.exchange(eq("/1"), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(ResponseEntity.ok().eTag("\"v1\"").body(body))
+                .thenReturn(ResponseEntity.ok().eTag("\"v2\"").body(body));
+        // doReturn не вызывает exchange при заглушке, поэтому строгий Mockito не видит конфликта с GET
+        doReturn(mockResponse).when(restTemplate)
+                .exchange(eq("/1"), eq(HttpMethod.PATCH), any(HttpEntity.class), eq(byte[].class));
+
+        itemClient.getItemById(1L, null);
+        ResponseEntity<Object> cached = itemClient.getItemById(1L, null);
+        ResponseEntity<Object> notModified = itemClient.getItemById(1L, "\"v1\"");
+
+        assertArrayEquals(body, (byte[]) cached.getBody());
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        verify(restTemplate, times(1)).exchange(eq("/1"), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class));
+
+        itemClient.updateItem(1L, 1L, ItemDto.builder().name("Item").build());
+
+        assertEquals("\"v2\"", itemClient.getItemById(1L, null).getHeaders().getETag());
+        verify(restTemplate, times(2)).exchange(eq("/1"), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class));
+    }
+
     @Test
     void getItemsByOwner() {
         mockExchange("/", HttpMethod.GET, mockResponse);
@@ -74,12 +224,39 @@ class ItemClientTest extends AbstractClientTest {
 
     @Test
     void searchItems() {
-        mockExchange("/search?text=test", HttpMethod.GET, mockResponse);
+        mockExchange("/search?text=test&from=0&size=10", HttpMethod.GET, mockResponse);
 
-        ResponseEntity<Object> response = itemClient.searchItems("test");
+        ResponseEntity<Object> response = itemClient.searchItems("test", 0, 10);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        verifyExchange("/search?text=test", HttpMethod.GET, null, null, true);
+        verifyExchange("/search?text=test&from=0&size=10", HttpMethod.GET, null, null, true);
+    }
+
+    @Test
+    void concurrentSearchesShareOneServerCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger serverCalls = new AtomicInteger();
+        when(restTemplate.exchange(eq("/search?text=drill&from=0"), eq(HttpMethod.GET), any(HttpEntity.class),
+                eq(byte[].class)))
+                .thenAnswer(invocation -> {
+                    serverCalls.incrementAndGet();
+                    release.await();
+                    return ResponseEntity.ok().body("[]".getBytes(StandardCharsets.UTF_8));
+                });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<ResponseEntity<Object>>> responses = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                responses.add(executor.submit(() -> itemClient.searchItems("drill", 0, null)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<ResponseEntity<Object>> response : responses) {
+                assertEquals(HttpStatus.OK, response.get().getStatusCode());
+            }
+        }
+        assertEquals(1, serverCalls.get());
     }
 
     @Test
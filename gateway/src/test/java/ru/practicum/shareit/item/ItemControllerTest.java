@@ -5,11 +5,15 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpResponse;
 import ru.practicum.shareit.AbstractControllerTest;
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.InputStream;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.verify;
@@ -57,6 +61,51 @@ class ItemControllerTest extends AbstractControllerTest<ItemClient> {
         assertEquals(itemCreateDto.getName(), captor.getValue().getName());
     }
 
+    @Test
+    void createItems_whenValid_thenStatusOk() throws Exception {
+        mockMvc.perform(post("/items/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(itemCreateDto, itemCreateDto))))
+                .andExpect(status().isOk());
+
+        verify(client).createItems(eq(1L), anyList());
+    }
+
+    @Test
+    void createItems_whenItemIsInvalid_thenStatusBadRequest() throws Exception {
+        ItemCreateDto invalid = ItemCreateDto.builder()
+                .description("Description")
+                .available(true)
+                .build();
+
+        mockMvc.perform(post("/items/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(itemCreateDto, invalid))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importItems_whenNdjson_thenStatusOk() throws Exception {
+        mockMvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\": \"Item\"}\n"))
+                .andExpect(status().isOk());
+
+        verify(client).importItems(eq(1L), any(InputStream.class), any(ServerHttpResponse.class));
+    }
+
+    @Test
+    void exportItems_whenValid_thenStatusOk() throws Exception {
+        mockMvc.perform(get("/items/export")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk());
+
+        verify(client).exportItems(eq(1L), any(ServerHttpResponse.class));
+    }
+
     @Test
     void createItem_whenMissingHeader_thenStatusBadRequest() throws Exception {
         mockMvc.perform(post("/items")
@@ -114,7 +163,16 @@ class ItemControllerTest extends AbstractControllerTest<ItemClient> {
         mockMvc.perform(get("/items/1"))
                 .andExpect(status().isOk());
 
-        verify(client).getItemById(eq(1L));
+        verify(client).getItemById(eq(1L), isNull());
+    }
+
+    @Test
+    void getItemById_whenIfNoneMatch_thenForwardsTag() throws Exception {
+        mockMvc.perform(get("/items/1")
+                        .header("If-None-Match", "\"v1\""))
+                .andExpect(status().isOk());
+
+        verify(client).getItemById(eq(1L), eq("\"v1\""));
     }
 
     @Test
@@ -132,7 +190,26 @@ class ItemControllerTest extends AbstractControllerTest<ItemClient> {
                         .param("text", "query"))
                 .andExpect(status().isOk());
 
-        verify(client).searchItems(eq("query"));
+        verify(client).searchItems(eq("query"), eq(0), isNull());
+    }
+
+    @Test
+    void searchItems_whenFromAndSize_thenStatusOk() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .param("text", "query")
+                        .param("from", "20")
+                        .param("size", "10"))
+                .andExpect(status().isOk());
+
+        verify(client).searchItems(eq("query"), eq(20), eq(10));
+    }
+
+    @Test
+    void searchItems_whenNegativeFrom_thenStatusBadRequest() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .param("text", "query")
+                        .param("from", "-1"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
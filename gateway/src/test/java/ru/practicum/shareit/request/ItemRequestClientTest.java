@@ -17,7 +17,7 @@ class ItemRequestClientTest extends AbstractClientTest {
 
     @BeforeEach
     void setUp() {
-        itemRequestClient = new ItemRequestClient("http://localhost:8080", restTemplateBuilder);
+        itemRequestClient = new ItemRequestClient("http://localhost:8080", restTemplateBuilder, requestFactory);
     }
 
     @Test
@@ -44,11 +44,21 @@ class ItemRequestClientTest extends AbstractClientTest {
 
     }
 
+    @Test
+    void getAllRequestsWithCursor() {
+        mockExchange("/all?cursor=abc&size=10", HttpMethod.GET, mockResponse);
+
+        ResponseEntity<Object> response = itemRequestClient.getAllRequests(1L, "abc", 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verifyExchange("/all?cursor=abc&size=10", HttpMethod.GET, 1L, null, true);
+    }
+
     @Test
     void getRequestById() {
         mockExchange("/1", HttpMethod.GET, mockResponse);
 
-        ResponseEntity<Object> response = itemRequestClient.getRequestById(1L, 1L);
+        ResponseEntity<Object> response = itemRequestClient.getRequestById(1L, 1L, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verifyExchange("/1", HttpMethod.GET, 1L, null, true);
@@ -86,13 +86,32 @@ class ItemRequestControllerTest extends AbstractControllerTest<ItemRequestClient
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void getAllRequests_whenValid_thenStatusOk() throws Exception {
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", "abc")
+                        .param("size", "10"))
+                .andExpect(status().isOk());
+
+        verify(client).getAllRequests(eq(1L), eq("abc"), eq(10));
+    }
+
+    @Test
+    void getAllRequests_whenSizeIsZero_thenStatusBadRequest() throws Exception {
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getRequestById_whenValid_thenStatusOk() throws Exception {
         mockMvc.perform(get("/requests/1")
                         .header("X-Sharer-User-Id", 1L))
                 .andExpect(status().isOk());
 
-        verify(client).getRequestById(eq(1L), eq(1L));
+        verify(client).getRequestById(eq(1L), eq(1L), isNull());
     }
 
     @Test
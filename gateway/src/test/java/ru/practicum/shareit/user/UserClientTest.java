@@ -2,14 +2,18 @@ package ru.practicum.shareit.user;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.*;
+import org.springframework.web.client.HttpClientErrorException;
 import ru.practicum.shareit.AbstractClientTest;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
 
 class UserClientTest extends AbstractClientTest {
 
@@ -17,7 +21,7 @@ class UserClientTest extends AbstractClientTest {
 
     @BeforeEach
     void setUp() {
-        userClient = new UserClient("http://localhost:8080", restTemplateBuilder);
+        userClient = new UserClient("http://localhost:8080", restTemplateBuilder, requestFactory);
     }
 
     @Test
@@ -62,7 +66,7 @@ class UserClientTest extends AbstractClientTest {
 
     @Test
     void deleteUser() {
-        ResponseEntity<Object> mockResponse = ResponseEntity.ok().build();
+        ResponseEntity<byte[]> mockResponse = ResponseEntity.ok().build();
         mockExchange("/1", HttpMethod.DELETE, mockResponse);
 
         ResponseEntity<Object> response = userClient.deleteUser(1L);
@@ -70,4 +74,37 @@ class UserClientTest extends AbstractClientTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verifyExchange("/1", HttpMethod.DELETE, null, null, true);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getUserByIdPassesBodyThrough() {
+        byte[] body = "{\"id\":1,\"name\":\"User\"}".getBytes(StandardCharsets.UTF_8);
+        ResponseEntity<byte[]> serverResponse = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.TRANSFER_ENCODING, "chunked")
+                .body(body);
+        mockExchange("/1", HttpMethod.GET, serverResponse);
+
+        ResponseEntity<Object> response = userClient.getUserById(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(body, response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING));
+    }
+
+    @Test
+    void getUserByIdPassesErrorThrough() {
+        byte[] body = "{\"error\":\"Not Found\"}".getBytes(StandardCharsets.UTF_8);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        when(restTemplate.exchange(eq("/1"), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", headers, body,
+                        StandardCharsets.UTF_8));
+
+        ResponseEntity<Object> response = userClient.getUserById(1L);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertArrayEquals(body, (byte[]) response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    }
+}
@@ -0,0 +1,33 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Заводит последовательности для пакетной генерации id с шагом 50. Каждая последовательность стартует
+ * после текущего максимального id таблицы, поэтому миграция одинаково работает на пустой и на рабочей базе.
+ * Identity-столбцы заменяет V7: умолчанием id становится эта же последовательность.
+ */
+public class V4__Add_pooled_id_sequences extends BaseJavaMigration {
+    private static final int ALLOCATION_SIZE = 50;
+    private static final List<String> TABLES = List.of("users", "items", "bookings", "comments");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String table : TABLES) {
+                long next;
+                try (ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+                    resultSet.next();
+                    next = resultSet.getLong(1);
+                }
+                statement.execute("CREATE SEQUENCE " + table + "_seq START WITH " + next
+                        + " INCREMENT BY " + ALLOCATION_SIZE);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Убирает identity у столбцов id и делает умолчанием следующее значение последовательности, из которой
+ * берёт id Hibernate. Иначе identity-счётчик и последовательность выдают одни и те же id, и вставка мимо
+ * JPA сталкивается с блоком pooled-lo. Вставка мимо JPA тратит на строку целый блок из 50 значений.
+ */
+public class V7__Use_sequences_as_id_defaults extends BaseJavaMigration {
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "users", "users_seq",
+            "items", "items_seq",
+            "bookings", "bookings_seq",
+            "comments", "comments_seq",
+            "requests", "item_request_seq");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        boolean postgres = "PostgreSQL".equals(context.getConnection().getMetaData().getDatabaseProductName());
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (Map.Entry<String, String> table : SEQUENCES.entrySet()) {
+                String nextValue = postgres
+                        ? "nextval('" + table.getValue() + "')"
+                        : "NEXT VALUE FOR " + table.getValue();
+                statement.execute("ALTER TABLE " + table.getKey() + " ALTER COLUMN id DROP IDENTITY");
+                statement.execute("ALTER TABLE " + table.getKey() + " ALTER COLUMN id SET DEFAULT " + nextValue);
+            }
+        }
+    }
+}
@@ -1,20 +1,37 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.ndjson.NdjsonWriters;
+import ru.practicum.shareit.pagination.KeysetPage;
+import ru.practicum.shareit.user.service.UserService;
 
 import java.util.List;
 
 @RestController
 @RequestMapping(path = "/bookings")
 public class BookingController {
+    public static final String NEXT_CURSOR_HEADER = KeysetPage.NEXT_CURSOR_HEADER;
+
     private final BookingService bookingService;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, UserService userService, ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -30,6 +47,12 @@ public class BookingController {
         return BookingMapper.INSTANCE.toBookingDto(bookingService.updateBooking(userId, bookingId, approved));
     }
 
+    @PatchMapping("/bulk")
+    public List<BookingDecisionResultDto> updateBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                         @RequestBody List<BookingDecisionDto> decisions) {
+        return bookingService.updateBookings(userId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
                                  @PathVariable Long bookingId) {
@@ -37,18 +60,29 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getBookingsByUser(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                              @RequestParam(defaultValue = "ALL") BookingState state) {
-        return bookingService.getBookingsByUser(userId, state).stream()
-                .map(BookingMapper.INSTANCE::toBookingDto)
-                .toList();
+    public ResponseEntity<List<BookingShortDto>> getBookingsByUser(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                   @RequestParam(defaultValue = "ALL") BookingState state,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer size) {
+        return bookingService.getBookingsByUser(userId, state, cursor, size).toResponse();
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getBookingsByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                               @RequestParam(defaultValue = "ALL") BookingState state) {
-        return bookingService.getBookingsByOwner(userId, state).stream()
-                .map(BookingMapper.INSTANCE::toBookingDto)
-                .toList();
+    public ResponseEntity<List<BookingShortDto>> getBookingsByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                    @RequestParam(defaultValue = "ALL") BookingState state,
+                                                                    @RequestParam(required = false) String cursor,
+                                                                    @RequestParam(required = false) Integer size) {
+        return bookingService.getBookingsByOwner(userId, state, cursor, size).toResponse();
+    }
+
+    @GetMapping(path = "/owner/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportBookingsByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                       @RequestParam(defaultValue = "ALL") BookingState state) {
+        userService.checkUserExists(userId);
+        return out -> {
+            try (SequenceWriter writer = NdjsonWriters.open(objectMapper, out)) {
+                bookingService.exportBookingsByOwner(userId, state, writer::write);
+            }
+        };
     }
 }
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Comment;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Бронирование в списке, собранное из выбранных столбцов. JSON повторяет прежний ответ на сущностях:
+ * вещь с владельцем и комментариями, повторная вещь в том же ответе заменяется её id. Jackson узнаёт
+ * повтор по экземпляру, поэтому у бронирований одной вещи на странице должен быть общий {@link ItemView}.
+ */
+public record BookingShortDto(Long id,
+                              LocalDateTime start,
+                              LocalDateTime end,
+                              ItemView item,
+                              UserView booker,
+                              BookingStatus status) {
+
+    public BookingShortDto(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                           Long itemId, String itemName, String itemDescription, Boolean itemAvailable,
+                           Long requestId, Long ownerId, String ownerName, String ownerEmail,
+                           Long bookerId, String bookerName, String bookerEmail) {
+        this(id, start, end,
+                new ItemView(itemId, itemName, itemDescription, itemAvailable,
+                        new UserView(ownerId, ownerName, ownerEmail), requestId, null),
+                new UserView(bookerId, bookerName, bookerEmail),
+                status);
+    }
+
+    public BookingShortDto withItem(ItemView item) {
+        return new BookingShortDto(id, start, end, item, booker, status);
+    }
+
+    @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
+    @JsonPropertyOrder({"id", "name", "description", "available", "owner", "request", "lastBooking", "nextBooking",
+            "comments"})
+    public record ItemView(Long id,
+                           String name,
+                           String description,
+                           Boolean available,
+                           UserView owner,
+                           Long request,
+                           @JsonInclude(JsonInclude.Include.NON_NULL) List<CommentView> comments) {
+
+        public ItemView withComments(List<CommentView> comments) {
+            return new ItemView(id, name, description, available, owner, request, comments);
+        }
+
+        // Ближайшие бронирования у вещи в списке бронирований не заполнялись и раньше
+        @JsonProperty("lastBooking")
+        Object lastBooking() {
+            return null;
+        }
+
+        @JsonProperty("nextBooking")
+        Object nextBooking() {
+            return null;
+        }
+    }
+
+    public record UserView(Long id, String name, String email) {
+    }
+
+    @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
+    public record CommentView(Long id, String text, Long item, UserView user, LocalDateTime createdAt) {
+        public static CommentView of(Comment comment) {
+            return new CommentView(comment.getId(), comment.getText(), comment.getItem().getId(),
+                    new UserView(comment.getUser().getId(), comment.getUser().getName(), comment.getUser().getEmail()),
+                    comment.getCreatedAt());
+        }
+    }
+}
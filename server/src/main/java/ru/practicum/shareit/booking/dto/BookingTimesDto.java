@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+public record BookingTimesDto(Long id, Long itemId, Long bookerId, Long ownerId,
+                              LocalDateTime start, LocalDateTime end) {
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.model;
+
+/**
+ * Бронирование создано или сменило статус. Публикуется внутри транзакции записи.
+ */
+public record BookingChangedEvent(Long bookingId, Long itemId, Long bookerId, Long ownerId) {
+
+    public static BookingChangedEvent of(Booking booking) {
+        return new BookingChangedEvent(booking.getId(), booking.getItem().getId(), booking.getUser().getId(),
+                booking.getItem().getOwner().getId());
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Бронирование перешло границу {@code at} и сменило временное состояние: FUTURE → CURRENT на начале,
+ * CURRENT → PAST на окончании. Событие может прийти повторно, подписчики должны это переносить.
+ */
+public record BookingStateChangedEvent(Long bookingId, Long itemId, Long bookerId, Long ownerId,
+                                       BookingState from, BookingState to, LocalDateTime at) {
+}
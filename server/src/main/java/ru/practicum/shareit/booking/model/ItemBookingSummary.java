@@ -0,0 +1,42 @@
+package ru.practicum.shareit.booking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Последнее и следующее бронирование вещи, посчитанные на момент {@code computedAt}. Строка пересчитывается
+ * при создании бронирования и планировщиком после {@code validUntil}, когда выбор меняется сам по себе.
+ * Отсутствие строки означает, что у вещи нет бронирований.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "item_booking_summary")
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_booking_id")
+    private Booking lastBooking;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "next_booking_id")
+    private Booking nextBooking;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+
+    @Column(name = "valid_until")
+    private LocalDateTime validUntil;
+
+    public boolean isFresh(LocalDateTime now) {
+        return validUntil == null || validUntil.isAfter(now);
+    }
+}
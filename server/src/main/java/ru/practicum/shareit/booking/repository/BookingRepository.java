@@ -1,37 +1,69 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.BookingTimesDto;
+import ru.practicum.shareit.booking.dto.ItemBookingBoundaryDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByUserIdAndStartIsBeforeAndEndIsAfter(Long userId, LocalDateTime start, LocalDateTime end, Sort sort);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item " +
+            "JOIN FETCH b.user " +
+            "WHERE b.item.id IN ?1 " +
+            "AND (b.end = (SELECT MAX(l.end) FROM Booking l WHERE l.item = b.item AND l.end < ?2) " +
+            "OR b.start = (SELECT MIN(n.start) FROM Booking n WHERE n.item = b.item AND n.start > ?2))")
+    List<Booking> findLastAndNextByItemIdIn(Collection<Long> itemIds, LocalDateTime now);
 
-    List<Booking> findByUserIdAndEndIsBefore(Long userId, LocalDateTime end, Sort sort);
+    // Ближайший момент после ?2, когда у вещи сменится последнее или следующее бронирование
+    @Query("SELECT new ru.practicum.shareit.booking.dto.ItemBookingBoundaryDto(b.item.id, " +
+            "MIN(CASE WHEN b.start > ?2 THEN b.start ELSE b.end END)) " +
+            "FROM Booking b " +
+            "WHERE b.item.id IN ?1 " +
+            "AND b.end >= ?2 " +
+            "GROUP BY b.item.id")
+    List<ItemBookingBoundaryDto> findNextBoundaryByItemIdIn(Collection<Long> itemIds, LocalDateTime now);
 
-    List<Booking> findByUserIdAndStartIsAfter(Long userId, LocalDateTime end, Sort sort);
+    List<Booking> findByItemIdAndStatusIn(Long itemId, Collection<BookingStatus> statuses);
 
-    List<Booking> findByUserIdAndStatus(Long userId, BookingStatus status, Sort sort);
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH i.owner " +
+            "JOIN FETCH b.user " +
+            "WHERE b.id IN ?1")
+    List<Booking> findAllWithItemByIdIn(Collection<Long> ids);
 
-    List<Booking> findByUserId(Long userId, Sort sort);
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.id IN ?1 " +
+            "AND b.status = ?2 " +
+            "AND b.start < ?4 " +
+            "AND b.end > ?3")
+    List<Booking> findOverlapping(Collection<Long> itemIds, BookingStatus status, LocalDateTime start,
+                                  LocalDateTime end);
 
-    List<Booking> findByItemOwnerIdAndStartIsBeforeAndEndIsAfter(Long ownerId, LocalDateTime start, LocalDateTime end, Sort sort);
+    @Query("SELECT COUNT(b) > 0 FROM Booking b " +
+            "WHERE b.item.id = ?1 " +
+            "AND b.status = ?2 " +
+            "AND b.start < ?4 " +
+            "AND b.end > ?3 " +
+            "AND b.id <> ?5")
+    boolean existsOverlapping(Long itemId, BookingStatus status, LocalDateTime start, LocalDateTime end,
+                              Long excludeId);
 
-    List<Booking> findByItemOwnerIdAndEndIsBefore(Long ownerId, LocalDateTime end, Sort sort);
-
-    List<Booking> findByItemOwnerIdAndStartIsAfter(Long ownerId, LocalDateTime start, Sort sort);
-
-    List<Booking> findByItemOwnerIdAndStatus(Long ownerId, BookingStatus status, Sort sort);
-
-    List<Booking> findByItemOwnerId(Long ownerId, Sort sort);
-
-    Booking findByItemIdAndEndIsBeforeOrderByEndDesc(Long itemId, LocalDateTime now);
-
-    Booking findByItemIdAndStartIsAfterOrderByStartAsc(Long itemId, LocalDateTime now);
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingTimesDto(" +
+            "b.id, i.id, b.user.id, i.owner.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "JOIN b.item i " +
+            "WHERE b.end > ?1 " +
+            "AND b.id > ?2 " +
+            "ORDER BY b.id")
+    List<BookingTimesDto> findUpcomingTimes(LocalDateTime now, long afterId, Pageable pageable);
 
     boolean existsByUser_IdAndItemIdAndEndBefore(Long bookerId, Long itemId, LocalDateTime end);
 }
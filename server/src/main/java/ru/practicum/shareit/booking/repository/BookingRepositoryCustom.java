@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.pagination.KeysetCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface BookingRepositoryCustom {
+    List<BookingShortDto> findByUserIdAndState(long userId, BookingState state, LocalDateTime now,
+                                               KeysetCursor after, Integer limit);
+
+    List<BookingShortDto> findByItemOwnerIdAndState(long ownerId, BookingState state, LocalDateTime now,
+                                                    KeysetCursor after, Integer limit);
+
+    Stream<BookingShortDto> streamByItemOwnerIdAndState(long ownerId, BookingState state, LocalDateTime now);
+}
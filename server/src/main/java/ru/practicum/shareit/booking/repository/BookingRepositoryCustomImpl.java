@@ -0,0 +1,105 @@
+package ru.practicum.shareit.booking.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.hibernate.jpa.HibernateHints;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingShortDto> findByUserIdAndState(long userId, BookingState state, LocalDateTime now,
+                                              KeysetCursor after, Integer limit) {
+        return find(false, userId, state, now, after, limit);
+    }
+
+    @Override
+    public List<BookingShortDto> findByItemOwnerIdAndState(long ownerId, BookingState state, LocalDateTime now,
+                                                   KeysetCursor after, Integer limit) {
+        return find(true, ownerId, state, now, after, limit);
+    }
+
+    @Override
+    public Stream<BookingShortDto> streamByItemOwnerIdAndState(long ownerId, BookingState state, LocalDateTime now) {
+        return query(true, ownerId, state, now, null)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    private List<BookingShortDto> find(boolean byOwner, long userId, BookingState state, LocalDateTime now,
+                                       KeysetCursor after, Integer limit) {
+        TypedQuery<BookingShortDto> query = query(byOwner, userId, state, now, after);
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList();
+    }
+
+    private TypedQuery<BookingShortDto> query(boolean byOwner, long userId, BookingState state, LocalDateTime now,
+                                              KeysetCursor after) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingShortDto> query = cb.createQuery(BookingShortDto.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        Join<Booking, User> booker = booking.join("user");
+        Join<Item, User> owner = item.join("owner");
+        Join<Item, ItemRequest> request = item.join("request", JoinType.LEFT);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (byOwner) {
+            predicates.add(cb.equal(owner.get("id"), userId));
+        } else {
+            predicates.add(cb.equal(booker.get("id"), userId));
+        }
+
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Path<Long> id = booking.get("id");
+        switch (state) {
+            case CURRENT -> {
+                predicates.add(cb.lessThan(start, now));
+                predicates.add(cb.greaterThan(end, now));
+            }
+            case PAST -> predicates.add(cb.lessThan(end, now));
+            case FUTURE -> predicates.add(cb.greaterThan(start, now));
+            case WAITING -> predicates.add(cb.equal(booking.get("status"), BookingStatus.WAITING));
+            case REJECTED -> predicates.add(cb.equal(booking.get("status"), BookingStatus.REJECTED));
+            default -> {
+            }
+        }
+
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(start, after.position()),
+                    cb.and(cb.equal(start, after.position()), cb.lessThan(id, after.id()))));
+        }
+
+        query.select(cb.construct(BookingShortDto.class,
+                        id, start, end, booking.get("status"),
+                        item.get("id"), item.get("name"), item.get("description"), item.get("available"),
+                        request.get("id"), owner.get("id"), owner.get("name"), owner.get("email"),
+                        booker.get("id"), booker.get("name"), booker.get("email")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.desc(start), cb.desc(id));
+
+        return entityManager.createQuery(query);
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    @Query("SELECT s FROM ItemBookingSummary s " +
+            "LEFT JOIN FETCH s.lastBooking l " +
+            "LEFT JOIN FETCH l.user " +
+            "LEFT JOIN FETCH s.nextBooking n " +
+            "LEFT JOIN FETCH n.user " +
+            "WHERE s.itemId IN ?1")
+    List<ItemBookingSummary> findAllWithBookingsByItemIdIn(Collection<Long> itemIds);
+
+    @Query("SELECT s.itemId FROM ItemBookingSummary s " +
+            "WHERE s.validUntil <= ?1 " +
+            "AND s.itemId > ?2 " +
+            "ORDER BY s.itemId")
+    List<Long> findStaleItemIds(LocalDateTime now, long afterItemId, Pageable pageable);
+}
@@ -0,0 +1,184 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.NotAvailableException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static ru.practicum.shareit.booking.model.BookingStatus.APPROVED;
+import static ru.practicum.shareit.booking.model.BookingStatus.WAITING;
+
+@Component
+public class BookingIntervalIndex {
+    private static final Set<BookingStatus> ACTIVE_STATUSES = EnumSet.of(WAITING, APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final ConcurrentMap<Long, ItemIntervals> itemIntervals = new ConcurrentHashMap<>();
+
+    public BookingIntervalIndex(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    public boolean isFree(long itemId, LocalDateTime start, LocalDateTime end) {
+        return !intervalsOf(itemId).overlaps(start, end, null, ACTIVE_STATUSES);
+    }
+
+    public void reserve(Booking booking) {
+        ItemIntervals intervals = intervalsOf(booking.getItem().getId());
+        Interval interval = Interval.of(booking, WAITING);
+
+        synchronized (intervals) {
+            if (intervals.overlaps(interval.start(), interval.end(), interval.id(), ACTIVE_STATUSES)) {
+                throw new NotAvailableException("Вещь уже забронирована на указанный период");
+            }
+            intervals.put(interval);
+        }
+        onRollback(() -> intervals.remove(interval.id()));
+    }
+
+    public void approve(Booking booking) {
+        ItemIntervals intervals = intervalsOf(booking.getItem().getId());
+        Interval interval = Interval.of(booking, APPROVED);
+        Interval previous;
+
+        synchronized (intervals) {
+            if (intervals.overlaps(interval.start(), interval.end(), interval.id(), EnumSet.of(APPROVED))) {
+                throw new NotAvailableException("Вещь уже забронирована на указанный период");
+            }
+            previous = intervals.put(interval);
+        }
+        onRollback(() -> restore(intervals, interval.id(), previous));
+    }
+
+    public void release(Booking booking) {
+        ItemIntervals intervals = intervalsOf(booking.getItem().getId());
+        Interval previous = intervals.remove(booking.getId());
+        onRollback(() -> restore(intervals, booking.getId(), previous));
+    }
+
+    private ItemIntervals intervalsOf(long itemId) {
+        ItemIntervals intervals = itemIntervals.get(itemId);
+        if (intervals != null) {
+            return intervals;
+        }
+        // Запрос идёт вне computeIfAbsent, чтобы не держать блокировку корзины карты на время похода в базу
+        ItemIntervals loaded = load(itemId);
+        ItemIntervals raced = itemIntervals.putIfAbsent(itemId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private ItemIntervals load(long itemId) {
+        ItemIntervals intervals = new ItemIntervals();
+        bookingRepository.findByItemIdAndStatusIn(itemId, ACTIVE_STATUSES)
+                .forEach(booking -> intervals.put(Interval.of(booking, booking.getStatus())));
+        return intervals;
+    }
+
+    private static void restore(ItemIntervals intervals, Long bookingId, Interval previous) {
+        if (previous != null) {
+            intervals.put(previous);
+        } else {
+            intervals.remove(bookingId);
+        }
+    }
+
+    private static void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private record Interval(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        private static final Comparator<Interval> BY_START = Comparator.comparing(Interval::start)
+                .thenComparing(Interval::id);
+        private static final Comparator<Interval> BY_END = Comparator.comparing(Interval::end)
+                .thenComparing(Interval::id);
+
+        static Interval of(Booking booking, BookingStatus status) {
+            return new Interval(booking.getId(), booking.getStart(), booking.getEnd(), status);
+        }
+
+        static Interval probe(LocalDateTime start) {
+            return new Interval(Long.MIN_VALUE, start, start, null);
+        }
+
+        Duration length() {
+            return Duration.between(start, end);
+        }
+    }
+
+    /**
+     * Интервалы одной вещи. Завершившиеся интервалы выбрасываются при каждом обращении,
+     * а самая длинная бронь считается только по оставшимся, поэтому окно поиска не растёт со временем.
+     */
+    private static final class ItemIntervals {
+        private final NavigableSet<Interval> byStart = new TreeSet<>(Interval.BY_START);
+        private final NavigableSet<Interval> byEnd = new TreeSet<>(Interval.BY_END);
+        private final Map<Long, Interval> byId = new HashMap<>();
+        private final NavigableMap<Duration, Integer> lengths = new TreeMap<>();
+
+        synchronized boolean overlaps(LocalDateTime start, LocalDateTime end, Long excludeId,
+                                      Set<BookingStatus> statuses) {
+            pruneEndedBefore(LocalDateTime.now());
+            if (byStart.isEmpty()) {
+                return false;
+            }
+            // Любой интервал, пересекающий [start, end), начинается в [start - longest, end)
+            Duration longest = lengths.lastKey();
+            NavigableSet<Interval> candidates = byStart.subSet(
+                    Interval.probe(start.minus(longest)), true, Interval.probe(end), false);
+            for (Interval interval : candidates) {
+                if (interval.end().isAfter(start)
+                        && statuses.contains(interval.status())
+                        && !interval.id().equals(excludeId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized Interval put(Interval interval) {
+            Interval previous = remove(interval.id());
+            byStart.add(interval);
+            byEnd.add(interval);
+            byId.put(interval.id(), interval);
+            lengths.merge(interval.length(), 1, Integer::sum);
+            pruneEndedBefore(LocalDateTime.now());
+            return previous;
+        }
+
+        synchronized Interval remove(Long id) {
+            Interval previous = byId.remove(id);
+            if (previous != null) {
+                byStart.remove(previous);
+                byEnd.remove(previous);
+                lengths.computeIfPresent(previous.length(), (length, count) -> count > 1 ? count - 1 : null);
+            }
+            return previous;
+        }
+
+        // Завершившиеся брони не пересекаются с новыми: начало брони не может быть в прошлом
+        private void pruneEndedBefore(LocalDateTime now) {
+            while (!byEnd.isEmpty() && !byEnd.first().end().isAfter(now)) {
+                remove(byEnd.first().id());
+            }
+        }
+    }
+}
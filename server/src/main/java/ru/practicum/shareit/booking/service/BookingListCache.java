@@ -0,0 +1,111 @@
+package ru.practicum.shareit.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.BookingChangedEvent;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStateChangedEvent;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.pagination.KeysetPage;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Первые страницы списков бронирований по ключу (пользователь, роль, состояние). Списки сбрасываются
+ * событиями этого экземпляра: изменение бронирования сбрасывает все списки арендатора и владельца,
+ * переход через границу времени только два затронутых состояния. Изменения, сделанные другими
+ * экземплярами, а также переименования вещей и пользователей видны после expire-after-write.
+ */
+@Component
+public class BookingListCache {
+    private static final String CACHE_NAME = "bookings";
+    private static final int UNPAGED = 0;
+    private static final Set<BookingState> ALL_STATES = EnumSet.allOf(BookingState.class);
+
+    public enum Role {
+        BOOKER,
+        OWNER
+    }
+
+    private record ListKey(long userId, Role role, BookingState state) {
+    }
+
+    // Страницы одного списка лежат в отдельной карте: сброс заменяет её целиком, и загрузка,
+    // начатая до сброса, допишет устаревшую страницу уже в выброшенную карту
+    private final Cache<ListKey, Map<Integer, KeysetPage<BookingShortDto>>> lists;
+    private final PrimaryReads primaryReads;
+    private final Counter hits;
+    private final Counter misses;
+
+    public BookingListCache(MeterRegistry meterRegistry,
+                            PrimaryReads primaryReads,
+                            @Value("${shareit.cache.bookings.maximum-size:10000}") long maximumSize,
+                            @Value("${shareit.cache.bookings.expire-after-write:PT5M}") Duration expireAfterWrite) {
+        this.lists = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, lists, CACHE_NAME + "-lists");
+        this.primaryReads = primaryReads;
+        this.hits = meterRegistry.counter("cache.gets", "cache", CACHE_NAME, "result", "hit");
+        this.misses = meterRegistry.counter("cache.gets", "cache", CACHE_NAME, "result", "miss");
+    }
+
+    public KeysetPage<BookingShortDto> get(long userId, Role role, BookingState state, Integer size,
+                                           Supplier<KeysetPage<BookingShortDto>> loader) {
+        Map<Integer, KeysetPage<BookingShortDto>> pages = lists.get(new ListKey(userId, role, state),
+                key -> new ConcurrentHashMap<>());
+        Integer pageKey = size == null ? UNPAGED : size;
+        KeysetPage<BookingShortDto> page = pages.get(pageKey);
+        if (page != null) {
+            hits.increment();
+            return page;
+        }
+        misses.increment();
+        // Страница с отстающей реплики пережила бы сброс, сделанный до её чтения
+        page = primaryReads.read(loader);
+        pages.put(pageKey, page);
+        return page;
+    }
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        evict(event.bookerId(), event.ownerId(), ALL_STATES);
+    }
+
+    @EventListener
+    public void onBookingStateChanged(BookingStateChangedEvent event) {
+        evict(event.bookerId(), event.ownerId(), EnumSet.of(event.from(), event.to()));
+    }
+
+    private void evict(long bookerId, long ownerId, Set<BookingState> states) {
+        List<ListKey> keys = new ArrayList<>(states.size() * 2);
+        for (BookingState state : states) {
+            keys.add(new ListKey(bookerId, Role.BOOKER, state));
+            keys.add(new ListKey(ownerId, Role.OWNER, state));
+        }
+        lists.invalidateAll(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Повторно после коммита, чтобы не остался список, прочитанный параллельным запросом до коммита
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lists.invalidateAll(keys);
+                }
+            });
+        }
+    }
+}
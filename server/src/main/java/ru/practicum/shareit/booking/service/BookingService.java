@@ -1,10 +1,19 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.util.function.ThrowingConsumer;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.pagination.KeysetPage;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface BookingService {
     Booking createBooking(long userId, BookingCreateDto bookingCreateDto);
@@ -13,13 +22,15 @@ public interface BookingService {
 
     Booking updateBooking(long userId, long bookingId, boolean approved);
 
-    List<Booking> getBookingsByUser(long userId, BookingState state);
+    List<BookingDecisionResultDto> updateBookings(long userId, List<BookingDecisionDto> decisions);
 
-    List<Booking> getBookingsByOwner(long ownerId, BookingState state);
+    KeysetPage<BookingShortDto> getBookingsByUser(long userId, BookingState state, String cursor, Integer size);
 
-    Booking getLastBooking(long itemId);
+    KeysetPage<BookingShortDto> getBookingsByOwner(long ownerId, BookingState state, String cursor, Integer size);
 
-    Booking getNextBooking(long itemId);
+    void exportBookingsByOwner(long ownerId, BookingState state, ThrowingConsumer<BookingShortDto> sink);
+
+    Map<Long, ItemBookingSummary> getBookingSummaries(Collection<Long> itemIds, LocalDateTime now);
 
     boolean existsByBookerIdAndItemId(long bookerId, long itemId);
 }
@@ -1,44 +1,85 @@
 package ru.practicum.shareit.booking.service;
 
-import org.springframework.data.domain.Sort;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.function.ThrowingConsumer;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingChangedEvent;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.NotAvailableException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.WrongException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.KeysetPage;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static ru.practicum.shareit.booking.model.BookingStatus.*;
 
+@Slf4j
 @Service
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final int UPDATE_ATTEMPTS = 3;
+
     private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
     private final ItemService itemService;
     private final UserService userService;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingSummaryStore itemBookingSummaryStore;
+    private final BookingStateScheduler bookingStateScheduler;
+    private final BookingListCache bookingListCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
-    public BookingServiceImpl(BookingRepository bookingRepository, ItemService itemService, UserService userService) {
+    public BookingServiceImpl(BookingRepository bookingRepository, CommentRepository commentRepository,
+                              ItemService itemService, UserService userService,
+                              BookingIntervalIndex bookingIntervalIndex, ItemBookingSummaryStore itemBookingSummaryStore,
+                              BookingStateScheduler bookingStateScheduler, BookingListCache bookingListCache,
+                              ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
         this.bookingRepository = bookingRepository;
+        this.commentRepository = commentRepository;
         this.itemService = itemService;
         this.userService = userService;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.itemBookingSummaryStore = itemBookingSummaryStore;
+        this.bookingStateScheduler = bookingStateScheduler;
+        this.bookingListCache = bookingListCache;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
     @Transactional
     public Booking createBooking(long userId, BookingCreateDto bookingCreateDto) {
         User user = userService.getUserById(userId);
-        Item item = itemService.getItemById(bookingCreateDto.getItemId());
+        // Блокировка до вставки: сводка по вещи пересчитывается с учётом параллельно созданных бронирований
+        Item item = itemService.lockItem(bookingCreateDto.getItemId());
 
         if (!item.getAvailable()) {
             throw new NotAvailableException("Вещь недоступна для бронирования");
@@ -48,8 +89,16 @@ public class BookingServiceImpl implements BookingService {
         booking.setUser(user);
         booking.setItem(item);
         booking.setStatus(WAITING);
+        // База хранит микросекунды: без усечения индекс интервалов и перечитанная из базы бронь расходятся
+        booking.setStart(booking.getStart().truncatedTo(ChronoUnit.MICROS));
+        booking.setEnd(booking.getEnd().truncatedTo(ChronoUnit.MICROS));
 
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.save(booking);
+        bookingIntervalIndex.reserve(saved);
+        itemBookingSummaryStore.refresh(List.of(item.getId()), LocalDateTime.now());
+        bookingStateScheduler.schedule(saved);
+        eventPublisher.publishEvent(BookingChangedEvent.of(saved));
+        return saved;
     }
 
     @Override
@@ -63,61 +112,186 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Booking updateBooking(long userId, long bookingId, boolean approved) {
+        return inTransaction(() -> changeStatus(userId, bookingId, approved));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BookingDecisionResultDto> updateBookings(long userId, List<BookingDecisionDto> decisions) {
+        return inTransaction(() -> changeStatuses(userId, decisions));
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        // Каждая попытка идёт в своей транзакции: конфликт версии откатывает её целиком
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt == UPDATE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Concurrent booking update, attempt {}: {}", attempt, e.getMessage());
+            }
+        }
+    }
+
+    private Booking changeStatus(long userId, long bookingId, boolean approved) {
         Booking booking = getBooking(userId, bookingId);
         if (userId != booking.getItem().getOwner().getId()) {
             throw new WrongException(
                     "Пользователь с id " + userId + " не может подверждать/отклонять бронирование. Так как не является владельцем вещи " + booking.getItem().getOwner().getId());
         }
         if (approved) {
+            // Блокировка строки вещи выстраивает подтверждения по одной вещи в очередь между экземплярами сервера
+            itemService.lockItem(booking.getItem().getId());
+            if (bookingRepository.existsOverlapping(booking.getItem().getId(), APPROVED,
+                    booking.getStart(), booking.getEnd(), booking.getId())) {
+                throw new NotAvailableException("Вещь уже забронирована на указанный период");
+            }
+            bookingIntervalIndex.approve(booking);
             booking.setStatus(APPROVED);
         } else {
+            bookingIntervalIndex.release(booking);
             booking.setStatus(REJECTED);
         }
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.of(saved));
+        return saved;
     }
 
-    @Override
-    public List<Booking> getBookingsByUser(long userId, BookingState state) {
-        userService.getUserById(userId);
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        LocalDateTime now = LocalDateTime.now();
+    private List<BookingDecisionResultDto> changeStatuses(long userId, List<BookingDecisionDto> decisions) {
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemByIdIn(
+                        decisions.stream().map(BookingDecisionDto::getBookingId).toList()).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<Booking> approving = decisions.stream()
+                .filter(decision -> Boolean.TRUE.equals(decision.getApproved()))
+                .map(decision -> bookings.get(decision.getBookingId()))
+                .filter(booking -> booking != null && booking.getItem().getOwner().getId() == userId)
+                .toList();
+        List<Booking> approved = lockAndFindApproved(approving);
+
+        List<BookingDecisionResultDto> results = new ArrayList<>(decisions.size());
+        for (BookingDecisionDto decision : decisions) {
+            Booking booking = bookings.get(decision.getBookingId());
+            if (booking == null) {
+                results.add(BookingDecisionResultDto.failed(decision.getBookingId(),
+                        "Бронирование с id " + decision.getBookingId() + " не найдено"));
+            } else if (booking.getItem().getOwner().getId() != userId) {
+                results.add(BookingDecisionResultDto.failed(booking.getId(),
+                        "Пользователь с id " + userId + " не является владельцем вещи " + booking.getItem().getId()));
+            } else if (Boolean.TRUE.equals(decision.getApproved()) && overlapsAny(booking, approved)) {
+                results.add(BookingDecisionResultDto.failed(booking.getId(),
+                        "Вещь уже забронирована на указанный период"));
+            } else {
+                try {
+                    if (Boolean.TRUE.equals(decision.getApproved())) {
+                        bookingIntervalIndex.approve(booking);
+                        booking.setStatus(APPROVED);
+                        approved.add(booking);
+                    } else {
+                        bookingIntervalIndex.release(booking);
+                        booking.setStatus(REJECTED);
+                        approved.remove(booking);
+                    }
+                    eventPublisher.publishEvent(BookingChangedEvent.of(booking));
+                    results.add(BookingDecisionResultDto.applied(booking.getId(), booking.getStatus()));
+                } catch (NotAvailableException e) {
+                    results.add(BookingDecisionResultDto.failed(booking.getId(), e.getMessage()));
+                }
+            }
+        }
+        // Изменённые сущности уходят одним JDBC-батчем при сбросе контекста на коммите
+        return results;
+    }
+
+    private List<Booking> lockAndFindApproved(List<Booking> approving) {
+        if (approving.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Long> itemIds = approving.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+        itemService.lockItems(itemIds);
 
-        return switch (state) {
-            case CURRENT -> bookingRepository.findByUserIdAndStartIsBeforeAndEndIsAfter(userId, now, now, sort);
-            case PAST -> bookingRepository.findByUserIdAndEndIsBefore(userId, now, sort);
-            case FUTURE -> bookingRepository.findByUserIdAndStartIsAfter(userId, now, sort);
-            case WAITING -> bookingRepository.findByUserIdAndStatus(userId, WAITING, sort);
-            case REJECTED -> bookingRepository.findByUserIdAndStatus(userId, REJECTED, sort);
-            default -> bookingRepository.findByUserId(userId, sort);
-        };
+        LocalDateTime start = approving.stream().map(Booking::getStart).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime end = approving.stream().map(Booking::getEnd).max(Comparator.naturalOrder()).orElseThrow();
+        return new ArrayList<>(bookingRepository.findOverlapping(itemIds, APPROVED, start, end));
+    }
+
+    private static boolean overlapsAny(Booking booking, List<Booking> approved) {
+        return approved.stream()
+                .anyMatch(other -> !other.getId().equals(booking.getId())
+                        && other.getItem().getId().equals(booking.getItem().getId())
+                        && other.getStart().isBefore(booking.getEnd())
+                        && other.getEnd().isAfter(booking.getStart()));
     }
 
     @Override
-    public List<Booking> getBookingsByOwner(long ownerId, BookingState state) {
-        userService.getUserById(ownerId);
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        LocalDateTime now = LocalDateTime.now();
+    public KeysetPage<BookingShortDto> getBookingsByUser(long userId, BookingState state, String cursor,
+                                                         Integer size) {
+        userService.checkUserExists(userId);
+        if (cursor != null) {
+            return withComments(findBookingsByUser(userId, state, cursor, size));
+        }
+        return withComments(bookingListCache.get(userId, BookingListCache.Role.BOOKER, state, size,
+                () -> findBookingsByUser(userId, state, null, size)));
+    }
 
-        return switch (state) {
-            case CURRENT -> bookingRepository.findByItemOwnerIdAndStartIsBeforeAndEndIsAfter(ownerId, now, now, sort);
-            case PAST -> bookingRepository.findByItemOwnerIdAndEndIsBefore(ownerId, now, sort);
-            case FUTURE -> bookingRepository.findByItemOwnerIdAndStartIsAfter(ownerId, now, sort);
-            case WAITING -> bookingRepository.findByItemOwnerIdAndStatus(ownerId, WAITING, sort);
-            case REJECTED -> bookingRepository.findByItemOwnerIdAndStatus(ownerId, REJECTED, sort);
-            default -> bookingRepository.findByItemOwnerId(ownerId, sort);
-        };
+    @Override
+    public KeysetPage<BookingShortDto> getBookingsByOwner(long ownerId, BookingState state, String cursor,
+                                                          Integer size) {
+        userService.checkUserExists(ownerId);
+        if (cursor != null) {
+            return withComments(findBookingsByOwner(ownerId, state, cursor, size));
+        }
+        return withComments(bookingListCache.get(ownerId, BookingListCache.Role.OWNER, state, size,
+                () -> findBookingsByOwner(ownerId, state, null, size)));
+    }
+
+    private KeysetPage<BookingShortDto> withComments(KeysetPage<BookingShortDto> page) {
+        // Комментарии не кэшируются вместе со страницей: новый комментарий не сбрасывает списки бронирований
+        List<Long> itemIds = page.items().stream().map(booking -> booking.item().id()).distinct().toList();
+        if (itemIds.isEmpty()) {
+            return page;
+        }
+        Map<Long, List<BookingShortDto.CommentView>> comments = commentRepository.findAllByItemIdIn(itemIds).stream()
+                .map(BookingShortDto.CommentView::of)
+                .collect(Collectors.groupingBy(BookingShortDto.CommentView::item));
+        // Один экземпляр вещи на страницу: повторная вещь сериализуется как её id
+        Map<Long, BookingShortDto.ItemView> items = new HashMap<>();
+        return page.map(booking -> booking.withItem(items.computeIfAbsent(booking.item().id(),
+                itemId -> booking.item().withComments(comments.getOrDefault(itemId, List.of())))));
+    }
+
+    private KeysetPage<BookingShortDto> findBookingsByUser(long userId, BookingState state, String cursor,
+                                                           Integer size) {
+        List<BookingShortDto> bookings = bookingRepository.findByUserIdAndState(
+                userId, state, LocalDateTime.now(), decodeCursor(cursor), KeysetPage.limitOf(size));
+        return KeysetPage.of(bookings, size, BookingServiceImpl::cursorOf);
+    }
+
+    private KeysetPage<BookingShortDto> findBookingsByOwner(long ownerId, BookingState state, String cursor,
+                                                            Integer size) {
+        List<BookingShortDto> bookings = bookingRepository.findByItemOwnerIdAndState(
+                ownerId, state, LocalDateTime.now(), decodeCursor(cursor), KeysetPage.limitOf(size));
+        return KeysetPage.of(bookings, size, BookingServiceImpl::cursorOf);
     }
 
     @Override
-    public Booking getLastBooking(long itemId) {
-        return bookingRepository.findByItemIdAndEndIsBeforeOrderByEndDesc(itemId, LocalDateTime.now());
+    public void exportBookingsByOwner(long ownerId, BookingState state, ThrowingConsumer<BookingShortDto> sink) {
+        // Строки читаются курсором и не попадают в контекст персистентности, поэтому память не растёт
+        try (Stream<BookingShortDto> bookings = bookingRepository.streamByItemOwnerIdAndState(
+                ownerId, state, LocalDateTime.now())) {
+            bookings.forEach(sink);
+        }
     }
 
     @Override
-    public Booking getNextBooking(long itemId) {
-        return bookingRepository.findByItemIdAndStartIsAfterOrderByStartAsc(itemId, LocalDateTime.now());
+    public Map<Long, ItemBookingSummary> getBookingSummaries(Collection<Long> itemIds, LocalDateTime now) {
+        return itemBookingSummaryStore.getSummaries(itemIds, now);
     }
 
     @Override
@@ -125,5 +299,12 @@ public class BookingServiceImpl implements BookingService {
         return bookingRepository.existsByUser_IdAndItemIdAndEndBefore(bookerId, itemId, LocalDateTime.now());
     }
 
+    private static KeysetCursor decodeCursor(String cursor) {
+        return cursor == null ? null : KeysetCursor.decode(cursor);
+    }
+
+    private static KeysetCursor cursorOf(BookingShortDto booking) {
+        return new KeysetCursor(booking.start(), booking.id());
+    }
 
 }
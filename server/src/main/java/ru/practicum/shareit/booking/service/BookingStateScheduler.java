@@ -0,0 +1,135 @@
+package ru.practicum.shareit.booking.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingTimesDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStateChangedEvent;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.timing.TimingWheel;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static ru.practicum.shareit.booking.model.BookingState.*;
+
+/**
+ * Публикует {@link BookingStateChangedEvent}, когда бронирования этого экземпляра пересекают начало и конец.
+ * Границы хранятся в колесе таймеров, поэтому проверка на каждом тике не зависит от числа бронирований.
+ */
+@Slf4j
+@Component
+public class BookingStateScheduler {
+    private static final int WHEEL_SIZE = 60;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration tick;
+    private final TimingWheel<BookingStateChangedEvent> wheel;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "booking-state-ticker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BookingStateScheduler(BookingRepository bookingRepository, ApplicationEventPublisher eventPublisher,
+                                 @Value("${shareit.booking-state.tick:PT1S}") Duration tick) {
+        this.bookingRepository = bookingRepository;
+        this.eventPublisher = eventPublisher;
+        this.tick = tick;
+        this.wheel = new TimingWheel<>(tick.toMillis(), WHEEL_SIZE, toMillis(LocalDateTime.now()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        LocalDateTime now = LocalDateTime.now();
+        long lastId = 0;
+        int loaded = 0;
+        List<BookingTimesDto> batch;
+        do {
+            batch = bookingRepository.findUpcomingTimes(now, lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            batch.forEach(booking -> schedule(booking, now));
+            loaded += batch.size();
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).id();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        log.info("Booking state scheduler loaded {} upcoming bookings", loaded);
+
+        ticker.scheduleWithFixedDelay(() -> advanceTo(LocalDateTime.now()),
+                tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    public void schedule(Booking booking) {
+        BookingTimesDto times = new BookingTimesDto(booking.getId(), booking.getItem().getId(),
+                booking.getUser().getId(), booking.getItem().getOwner().getId(), booking.getStart(), booking.getEnd());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            schedule(times, LocalDateTime.now());
+            return;
+        }
+        // Откаченное бронирование не должно порождать события
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                schedule(times, LocalDateTime.now());
+            }
+        });
+    }
+
+    public void advanceTo(LocalDateTime now) {
+        List<BookingStateChangedEvent> fired;
+        synchronized (wheel) {
+            fired = wheel.advance(toMillis(now));
+        }
+        for (BookingStateChangedEvent event : fired) {
+            try {
+                eventPublisher.publishEvent(event);
+            } catch (RuntimeException e) {
+                // Исключение в задаче ScheduledExecutorService отменило бы все следующие тики
+                log.warn("Booking state event {} failed: {}", event, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void schedule(BookingTimesDto booking, LocalDateTime now) {
+        synchronized (wheel) {
+            // Состояния сравнивают время строго, поэтому событие приходит через миллисекунду после границы
+            if (booking.start().isAfter(now)) {
+                wheel.schedule(toMillis(booking.start()) + 1, event(booking, FUTURE, CURRENT, booking.start()));
+            }
+            if (booking.end().isAfter(now)) {
+                wheel.schedule(toMillis(booking.end()) + 1, event(booking, CURRENT, PAST, booking.end()));
+            }
+        }
+    }
+
+    private static BookingStateChangedEvent event(BookingTimesDto booking, BookingState from, BookingState to,
+                                                  LocalDateTime at) {
+        return new BookingStateChangedEvent(booking.id(), booking.itemId(), booking.bookerId(), booking.ownerId(),
+                from, to, at);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.ItemBookingBoundaryDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStateChangedEvent;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class ItemBookingSummaryStore {
+    private static final int ROLL_FORWARD_BATCH_SIZE = 500;
+
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemService itemService;
+    private final TransactionTemplate transactionTemplate;
+
+    public ItemBookingSummaryStore(ItemBookingSummaryRepository summaryRepository, BookingRepository bookingRepository,
+                                   ItemService itemService, PlatformTransactionManager transactionManager) {
+        this.summaryRepository = summaryRepository;
+        this.bookingRepository = bookingRepository;
+        this.itemService = itemService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public Map<Long, ItemBookingSummary> getSummaries(Collection<Long> itemIds, LocalDateTime now) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, ItemBookingSummary> summaries = new HashMap<>();
+        List<Long> stale = new ArrayList<>();
+        for (ItemBookingSummary summary : summaryRepository.findAllWithBookingsByItemIdIn(itemIds)) {
+            if (summary.isFresh(now)) {
+                summaries.put(summary.getItemId(), summary);
+            } else {
+                stale.add(summary.getItemId());
+            }
+        }
+        if (!stale.isEmpty()) {
+            // Планировщик ещё не сдвинул эти строки: считаем на лету, а запись оставляем ему
+            summaries.putAll(compute(stale, now));
+        }
+        return summaries;
+    }
+
+    /**
+     * Пересчитывает строки вещей. Вызывающий держит блокировку этих вещей, иначе параллельные
+     * бронирования могут не увидеть друг друга.
+     */
+    public void refresh(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> existing = summaryRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        List<ItemBookingSummary> created = new ArrayList<>();
+        for (ItemBookingSummary computed : compute(itemIds, now).values()) {
+            ItemBookingSummary summary = existing.get(computed.getItemId());
+            if (summary == null) {
+                created.add(computed);
+            } else {
+                summary.setLastBooking(computed.getLastBooking());
+                summary.setNextBooking(computed.getNextBooking());
+                summary.setComputedAt(computed.getComputedAt());
+                summary.setValidUntil(computed.getValidUntil());
+            }
+        }
+        summaryRepository.saveAll(created);
+    }
+
+    @EventListener
+    public void onBookingStateChanged(BookingStateChangedEvent event) {
+        // Граница бронирования пройдена: сводку вещи можно сдвинуть сразу, не дожидаясь планировщика
+        transactionTemplate.executeWithoutResult(status -> {
+            itemService.lockItems(List.of(event.itemId()));
+            refresh(List.of(event.itemId()), LocalDateTime.now());
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.roll-forward-interval:PT1M}")
+    public void rollForward() {
+        int refreshed = rollForward(LocalDateTime.now());
+        if (refreshed > 0) {
+            log.debug("Rolled forward {} item booking summaries", refreshed);
+        }
+    }
+
+    public int rollForward(LocalDateTime now) {
+        int refreshed = 0;
+        long afterItemId = 0;
+        List<Long> itemIds;
+        do {
+            // Проход по id, а не по признаку устаревания: строка, устаревающая ровно в now, не зациклит обход
+            itemIds = summaryRepository.findStaleItemIds(now, afterItemId, PageRequest.of(0, ROLL_FORWARD_BATCH_SIZE));
+            if (itemIds.isEmpty()) {
+                break;
+            }
+            List<Long> batch = itemIds;
+            transactionTemplate.executeWithoutResult(status -> {
+                itemService.lockItems(batch);
+                refresh(batch, now);
+            });
+            refreshed += itemIds.size();
+            afterItemId = itemIds.get(itemIds.size() - 1);
+        } while (itemIds.size() == ROLL_FORWARD_BATCH_SIZE);
+        return refreshed;
+    }
+
+    private Map<Long, ItemBookingSummary> compute(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> summaries = new HashMap<>();
+        for (Long itemId : itemIds) {
+            summaries.put(itemId, ItemBookingSummary.builder().itemId(itemId).computedAt(now).build());
+        }
+        for (Booking booking : bookingRepository.findLastAndNextByItemIdIn(itemIds, now)) {
+            ItemBookingSummary summary = summaries.get(booking.getItem().getId());
+            if (booking.getEnd().isBefore(now)) {
+                summary.setLastBooking(latest(summary.getLastBooking(), booking));
+            } else {
+                summary.setNextBooking(latest(summary.getNextBooking(), booking));
+            }
+        }
+        for (ItemBookingBoundaryDto boundary : bookingRepository.findNextBoundaryByItemIdIn(itemIds, now)) {
+            summaries.get(boundary.itemId()).setValidUntil(boundary.at());
+        }
+        return summaries;
+    }
+
+    private static Booking latest(Booking current, Booking candidate) {
+        return current == null || candidate.getId() > current.getId() ? candidate : current;
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Чтения, которые заполняют кэши или отдаются под ETag. Они идут в основную базу: ответ, прочитанный
+ * с отстающей реплики, остался бы в кэше или под действующим тегом и после того, как реплика догонит.
+ */
+@Component
+public class PrimaryReads {
+    private final boolean replicaEnabled;
+    private final TransactionTemplate newTransaction;
+
+    public PrimaryReads(PlatformTransactionManager transactionManager,
+                        @Value("${shareit.datasource.replica.enabled:false}") boolean replicaEnabled) {
+        this.replicaEnabled = replicaEnabled;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.newTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Результат чтения в read-only транзакции приходит из отдельной транзакции и отсоединён от текущей сессии.
+     */
+    public <T> T read(Supplier<T> query) {
+        if (!replicaEnabled) {
+            return query.get();
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return ReplicaRoutingDataSource.onPrimary(query);
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Пишущая транзакция и так держит соединение с основной базой
+            return query.get();
+        }
+        // Текущая read-only транзакция могла уже взять соединение с репликой
+        return ReplicaRoutingDataSource.onPrimary(() -> newTransaction.execute(status -> query.get()));
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Направляет read-only транзакции на реплику, остальное на основную базу. Реплика периодически
+ * проверяется: если она недоступна или отстаёт больше допустимого, чтение временно идёт на основную базу.
+ * Чтения внутри {@link PrimaryReads#read} всегда идут на основную базу.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = ThreadLocal.withInitial(() -> false);
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final Duration maxLag;
+    private final long checkIntervalNanos;
+    private final String lagQuery;
+    private final AtomicLong nextCheck;
+    private volatile boolean replicaAvailable = true;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration maxLag,
+                                    Duration checkInterval, String lagQuery) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLag = maxLag;
+        this.checkIntervalNanos = checkInterval.toNanos();
+        this.lagQuery = lagQuery;
+        this.nextCheck = new AtomicLong(System.nanoTime());
+
+        setTargetDataSources(Map.of(DataSourceRole.PRIMARY, primary, DataSourceRole.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !PRIMARY_PINNED.get()
+                && isReplicaAvailable()
+                ? DataSourceRole.REPLICA
+                : DataSourceRole.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target != replica) {
+            return target.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            markReplicaUnavailable(e);
+            return primary.getConnection();
+        }
+    }
+
+    static <T> T onPrimary(Supplier<T> query) {
+        Boolean pinned = PRIMARY_PINNED.get();
+        PRIMARY_PINNED.set(true);
+        try {
+            return query.get();
+        } finally {
+            PRIMARY_PINNED.set(pinned);
+        }
+    }
+
+    private boolean isReplicaAvailable() {
+        long now = System.nanoTime();
+        long scheduled = nextCheck.get();
+        // Проверку выполняет один поток, остальные до её окончания видят прежний результат
+        if (now - scheduled >= 0 && nextCheck.compareAndSet(scheduled, now + checkIntervalNanos)) {
+            boolean available = checkReplica();
+            if (available != replicaAvailable) {
+                log.info("Реплика {} для чтения", available ? "снова используется" : "исключена");
+            }
+            replicaAvailable = available;
+        }
+        return replicaAvailable;
+    }
+
+    private boolean checkReplica() {
+        try (Connection connection = replica.getConnection()) {
+            if (!StringUtils.hasText(lagQuery)) {
+                return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                // Запрос возвращает отставание в секундах, пустой результат и NULL считаются нулевым отставанием
+                double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+                boolean fresh = lagSeconds * 1000 <= maxLag.toMillis();
+                if (!fresh) {
+                    log.warn("Реплика отстаёт на {} с при допустимых {}", lagSeconds, maxLag);
+                }
+                return fresh;
+            }
+        } catch (SQLException e) {
+            log.warn("Реплика недоступна: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void markReplicaUnavailable(SQLException e) {
+        log.warn("Не удалось получить соединение с репликой, чтение переключено на основную базу: {}",
+                e.getMessage());
+        replicaAvailable = false;
+        nextCheck.set(System.nanoTime() + checkIntervalNanos);
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.etag;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Версии вещей и запросов для ETag, чтобы отвечать 304 без обращения к базе. Счётчики общие для
+ * вещей с одинаковым остатком id, поэтому память не растёт, а соседняя запись лишь сбрасывает чужой тег.
+ * Изменения пользователей попадают в ответы через имена владельцев и авторов и сбрасывают все теги.
+ * Версии живут в памяти: тег действителен только на выдавшем его экземпляре и до его перезапуска,
+ * а записи через другие экземпляры этот экземпляр не видит.
+ */
+@Component
+public class EntityVersions {
+    private static final int STRIPES = 1 << 16;
+
+    private final String instance = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong users = new AtomicLong();
+    private final AtomicLongArray items = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray requests = new AtomicLongArray(STRIPES);
+
+    /**
+     * Тег нужно взять до чтения данных: запись, закоммиченная после чтения, сменит версию и тег не совпадёт.
+     */
+    public String itemTag(long itemId) {
+        return tag(items, itemId);
+    }
+
+    public String requestTag(long requestId) {
+        return tag(requests, requestId);
+    }
+
+    public void touchItem(Item item) {
+        touch(() -> {
+            items.incrementAndGet(stripe(item.getId()));
+            // Запрос отдаёт вещи, созданные в ответ на него
+            if (item.getRequest() != null) {
+                requests.incrementAndGet(stripe(item.getRequest().getId()));
+            }
+        });
+    }
+
+    public void touchRequest(long requestId) {
+        touch(() -> requests.incrementAndGet(stripe(requestId)));
+    }
+
+    public void touchUsers() {
+        touch(users::incrementAndGet);
+    }
+
+    private String tag(AtomicLongArray versions, long id) {
+        return "\"" + instance + "-" + users.get() + "-" + versions.get(stripe(id)) + "\"";
+    }
+
+    private static int stripe(long id) {
+        return (int) (id & (STRIPES - 1));
+    }
+
+    private static void touch(Runnable bump) {
+        bump.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Повторно после коммита: тег, взятый читателем до коммита, описывает старые данные
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bump.run();
+                }
+            });
+        }
+    }
+}
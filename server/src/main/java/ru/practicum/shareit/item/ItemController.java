@@ -1,24 +1,48 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.etag.EntityVersions;
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemImporter;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.ndjson.NdjsonWriters;
+import ru.practicum.shareit.user.service.UserService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
 @RequestMapping("/items")
 public class ItemController {
     private final ItemService itemService;
+    private final ItemImporter itemImporter;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final EntityVersions entityVersions;
+    private final PrimaryReads primaryReads;
 
     @Autowired
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, ItemImporter itemImporter, UserService userService,
+                          ObjectMapper objectMapper, EntityVersions entityVersions, PrimaryReads primaryReads) {
         this.itemService = itemService;
+        this.itemImporter = itemImporter;
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.entityVersions = entityVersions;
+        this.primaryReads = primaryReads;
     }
 
     @PostMapping
@@ -28,6 +52,36 @@ public class ItemController {
         return ItemMapper.INSTANCE.toItemDto(itemService.createItem(userId, itemCreateDto));
     }
 
+    @PostMapping("/batch")
+    public List<ItemDto> createItems(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestBody List<ItemCreateDto> itemCreateDtos) {
+        return itemService.createItems(userId, itemCreateDtos).stream()
+                .map(ItemMapper.INSTANCE::toItemDto)
+                .toList();
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody importItems(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            HttpServletRequest request) throws IOException {
+        // Проверка до начала ответа, чтобы неизвестный пользователь получил 404, а не пустой отчёт
+        userService.checkUserExists(userId);
+        InputStream body = request.getInputStream();
+        return out -> itemImporter.importItems(userId, body, out);
+    }
+
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportItems(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        userService.checkUserExists(userId);
+        return out -> {
+            try (SequenceWriter writer = NdjsonWriters.open(objectMapper, out)) {
+                itemService.exportItemsByOwner(userId, writer::write);
+            }
+        };
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(
             @RequestHeader("X-Sharer-User-Id") Long userId,
@@ -37,8 +91,12 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemDto getItemById(@PathVariable Long itemId) {
-        return ItemMapper.INSTANCE.toItemDto(itemService.getItemById(itemId));
+    public ItemDto getItemById(@PathVariable Long itemId, WebRequest request) {
+        if (request.checkNotModified(entityVersions.itemTag(itemId))) {
+            return null;
+        }
+        // Ответ уходит под текущим тегом, поэтому данные не должны отставать от него
+        return primaryReads.read(() -> ItemMapper.INSTANCE.toItemDto(itemService.getItemById(itemId)));
     }
 
     @GetMapping
@@ -50,8 +108,10 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> searchItems(@RequestParam String text) {
-        List<Item> items = itemService.searchItems(text);
+    public List<ItemDto> searchItems(@RequestParam String text,
+                                     @RequestParam(defaultValue = "0") int from,
+                                     @RequestParam(required = false) Integer size) {
+        List<Item> items = itemService.searchItems(text, from, size);
         return items.stream()
                 .map(ItemMapper.INSTANCE::toItemDto)
                 .toList();
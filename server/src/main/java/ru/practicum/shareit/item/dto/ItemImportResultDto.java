@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.dto;
+
+public record ItemImportResultDto(long line, Long id, String error) {
+
+    public static ItemImportResultDto created(long line, Long id) {
+        return new ItemImportResultDto(line, id, null);
+    }
+
+    public static ItemImportResultDto failed(long line, String error) {
+        return new ItemImportResultDto(line, null, error);
+    }
+}
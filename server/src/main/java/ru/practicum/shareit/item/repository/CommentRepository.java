@@ -1,7 +1,16 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-}
\ No newline at end of file
+    @Query("SELECT c FROM Comment c " +
+            "JOIN FETCH c.user " +
+            "WHERE c.item.id IN ?1 " +
+            "ORDER BY c.createdAt")
+    List<Comment> findAllByItemIdIn(Collection<Long> itemIds);
+}
@@ -1,17 +1,59 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.item.dto.ItemExportDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
+    @Query("SELECT i FROM Item i " +
+            "JOIN FETCH i.owner " +
+            "LEFT JOIN FETCH i.request r " +
+            "LEFT JOIN FETCH r.user " +
+            "WHERE i.owner.id = ?1 " +
+            "ORDER BY i.id")
     List<Item> findAllByOwnerId(long userId);
 
+    @Query("SELECT DISTINCT i FROM Item i " +
+            "JOIN FETCH i.owner " +
+            "LEFT JOIN FETCH i.comments c " +
+            "LEFT JOIN FETCH c.user " +
+            "WHERE i.request.id IN ?1 " +
+            "ORDER BY i.id")
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
     @Query("SELECT i FROM Item i " +
-            "WHERE (LOWER(i.name) LIKE LOWER(CONCAT('%', ?1, '%')) " +
-            "OR LOWER(i.description) LIKE LOWER(CONCAT('%', ?1, '%'))) " +
-            "AND i.available = true")
-    List<Item> search(String text);
+            "JOIN FETCH i.owner " +
+            "LEFT JOIN FETCH i.request r " +
+            "LEFT JOIN FETCH r.user " +
+            "WHERE i.id > ?1 " +
+            "ORDER BY i.id")
+    List<Item> findAllByIdGreaterThan(long id, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = ?1")
+    Optional<Item> findByIdForUpdate(long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id IN ?1 ORDER BY i.id")
+    List<Item> findAllByIdInForUpdate(Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemExportDto(i.id, i.name, i.description, i.available, r.id) " +
+            "FROM Item i " +
+            "LEFT JOIN i.request r " +
+            "WHERE i.owner.id = ?1 " +
+            "ORDER BY i.id")
+    Stream<ItemExportDto> streamAllByOwnerId(long ownerId);
 }
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Item> search(String text, int from, Integer size) {
+        TypedQuery<Item> query = entityManager.createQuery("SELECT i FROM Item i " +
+                        "WHERE (LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) " +
+                        "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%'))) " +
+                        "AND i.available = true " +
+                        "ORDER BY i.id", Item.class)
+                .setParameter("text", text)
+                // Смещение в строках, а не номер страницы: from не обязан быть кратен size
+                .setFirstResult(from);
+        if (size != null) {
+            query.setMaxResults(size);
+        }
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "database")
+public class RepositoryItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    public RepositoryItemSearchEngine(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    public List<Item> search(String text, int from, Integer size) {
+        return itemRepository.search(text, from, size);
+    }
+
+    @Override
+    public void index(Item item) {
+    }
+}
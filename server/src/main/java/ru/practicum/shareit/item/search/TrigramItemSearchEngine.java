@@ -0,0 +1,202 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск по триграммному индексу в памяти. Индекс видит только записи, прошедшие через этот экземпляр,
+ * остальные появятся после перезапуска. Запросы короче триграммы уходят в базу.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "index", matchIfMissing = true)
+public class TrigramItemSearchEngine implements ItemSearchEngine {
+    private static final int GRAM = 3;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Изменения, закоммиченные во время начальной загрузки: применяются после неё, чтобы не затереться старыми строками
+    private final List<Document> pending = new ArrayList<>();
+    private boolean loaded;
+
+    public TrigramItemSearchEngine(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long lastId = 0;
+        int count = 0;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findAllByIdGreaterThan(lastId, PageRequest.ofSize(LOAD_BATCH_SIZE));
+            List<Document> page = batch.stream().map(Document::of).toList();
+            lock.writeLock().lock();
+            try {
+                page.forEach(this::apply);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            count += batch.size();
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            pending.forEach(this::apply);
+            pending.clear();
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index loaded: {} items", count);
+    }
+
+    @Override
+    public void index(Item item) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(item);
+                }
+            });
+        } else {
+            put(item);
+        }
+    }
+
+    @Override
+    public List<Item> search(String text, int from, Integer size) {
+        if (text.length() < GRAM) {
+            // Без триграмм пришлось бы перебрать все документы
+            return itemRepository.search(text, from, size);
+        }
+        String query = text.toLowerCase(Locale.ROOT);
+        List<Document> found;
+
+        lock.readLock().lock();
+        try {
+            found = candidates(query).stream()
+                    .map(documents::get)
+                    .filter(document -> document.available() && document.matches(query))
+                    .sorted(Comparator.comparingInt((Document document) -> document.rank(query))
+                            .thenComparingLong(Document::id))
+                    .skip(from)
+                    .limit(size == null ? Long.MAX_VALUE : size)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Long> ids = found.stream().map(Document::id).toList();
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private Collection<Long> candidates(String query) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : gramsOf(query)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private void put(Item item) {
+        Document document = Document.of(item);
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                apply(document);
+            } else {
+                pending.add(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Document document) {
+        Document previous = documents.put(document.id(), document);
+        if (previous != null) {
+            for (String gram : previous.grams()) {
+                Set<Long> ids = postings.get(gram);
+                ids.remove(previous.id());
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        for (String gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(document.id());
+        }
+    }
+
+    private static Set<String> gramsOf(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private record Document(long id, String name, String description, boolean available) {
+        static Document of(Item item) {
+            return new Document(
+                    item.getId(),
+                    item.getName().toLowerCase(Locale.ROOT),
+                    item.getDescription().toLowerCase(Locale.ROOT),
+                    Boolean.TRUE.equals(item.getAvailable()));
+        }
+
+        Set<String> grams() {
+            Set<String> grams = gramsOf(name);
+            grams.addAll(gramsOf(description));
+            return grams;
+        }
+
+        boolean matches(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        int rank(String query) {
+            if (name.startsWith(query)) {
+                return 0;
+            }
+            return name.contains(query) ? 1 : 2;
+        }
+    }
+}
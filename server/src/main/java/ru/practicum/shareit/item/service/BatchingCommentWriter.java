@@ -0,0 +1,298 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.etag.EntityVersions;
+import ru.practicum.shareit.exception.OverloadedException;
+import ru.practicum.shareit.exception.WrongException;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Записывает комментарии пачками в фоновом потоке. Проверки и выдача id остаются в запросе, затем
+ * комментарий попадает в журнал на диске и в очередь, а клиент получает ответ до вставки в базу.
+ * Комментарий появляется в выдаче вещи после сброса пачки. Журнал проигрывается при старте,
+ * поэтому вставка идемпотентна по id. Переполненная очередь отвечает 503.
+ * <p>
+ * Перед приёмом право на отзыв ещё раз проверяется в базе, а не по кэшам: завершённое бронирование
+ * держит внешними ключами и вещь, и автора, так что принятый комментарий вставится.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.comments.writer", havingValue = "batching")
+public class BatchingCommentWriter implements CommentWriter {
+    private static final String ELIGIBLE_SQL = "SELECT COUNT(*) FROM bookings " +
+            "WHERE item_id = ? AND booker_id = ? AND end_date < ?";
+    private static final String INSERT_SQL = "INSERT INTO comments (id, text, item_id, author_id, created_at) " +
+            "SELECT ?, ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM comments WHERE id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final EntityVersions entityVersions;
+    private final CommentWriteAheadLog writeAheadLog;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration enqueueTimeout;
+    private final Duration retryDelay;
+    // Разрешение держится от приёма комментария до его вставки, так что очередь и пачка в работе ограничены вместе
+    private final Semaphore accepted;
+    private final Counter dropped;
+    private final BlockingQueue<PendingComment> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public BatchingCommentWriter(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 EntityManager entityManager,
+                                 EntityVersions entityVersions,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${shareit.comments.batching.wal-path:comments.wal}") Path walPath,
+                                 @Value("${shareit.comments.batching.wal-segment-bytes:16777216}") long walSegmentBytes,
+                                 @Value("${shareit.comments.batching.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${shareit.comments.batching.batch-size:200}") int batchSize,
+                                 @Value("${shareit.comments.batching.flush-interval:PT0.2S}") Duration flushInterval,
+                                 @Value("${shareit.comments.batching.enqueue-timeout:PT0.1S}") Duration enqueueTimeout,
+                                 @Value("${shareit.comments.batching.retry-delay:PT1S}") Duration retryDelay)
+            throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.entityVersions = entityVersions;
+        this.writeAheadLog = new CommentWriteAheadLog(walPath, objectMapper, walSegmentBytes);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.enqueueTimeout = enqueueTimeout;
+        this.retryDelay = retryDelay;
+        this.accepted = new Semaphore(queueCapacity);
+        Gauge.builder("shareit.comments.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+        this.dropped = meterRegistry.counter("shareit.comments.dropped");
+
+        // Бин создаётся до того, как сервер начнёт принимать запросы, поэтому журнал содержит только старые записи
+        replay();
+        this.writer = new Thread(this::run, "comment-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public Comment write(Comment comment) {
+        checkEligible(comment);
+        try {
+            if (!accepted.tryAcquire(enqueueTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new OverloadedException("Слишком много комментариев в очереди, повторите попытку позже");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OverloadedException("Запись комментария прервана");
+        }
+        long segment;
+        try {
+            comment.setId(nextId(comment));
+            segment = writeAheadLog.append(LoggedComment.of(comment));
+        } catch (IOException e) {
+            accepted.release();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            accepted.release();
+            throw e;
+        }
+        queue.add(new PendingComment(LoggedComment.of(comment), comment.getItem(), segment));
+        return comment;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        writeAheadLog.close();
+    }
+
+    private void checkEligible(Comment comment) {
+        // Запрос идёт в соединении транзакции запроса, то есть в основную базу
+        Long bookings = jdbcTemplate.queryForObject(ELIGIBLE_SQL, Long.class,
+                comment.getItem().getId(), comment.getUser().getId(), LocalDateTime.now());
+        if (bookings == null || bookings == 0) {
+            throw new WrongException("Пользователь с id " + comment.getUser().getId() + " не брал вещь с itemId "
+                    + comment.getItem().getId() + " в аренду");
+        }
+    }
+
+    private Long nextId(Comment comment) {
+        // Id из той же последовательности, что выдаёт Hibernate, без вставки через контекст персистентности
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Comment.class).getGenerator();
+        return (Long) generator.generate(session, comment);
+    }
+
+    private void replay() throws IOException {
+        List<LoggedComment> logged = writeAheadLog.readPrevious();
+        if (!logged.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(logged));
+            } catch (DataIntegrityViolationException e) {
+                insertOneByOne(logged);
+            }
+            log.info("Replayed {} comments from the write-ahead log", logged.size());
+        }
+        writeAheadLog.deletePrevious();
+    }
+
+    private void run() {
+        List<PendingComment> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingComment first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushInterval.toNanos();
+                while (batch.size() < batchSize) {
+                    PendingComment next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Остановка: дописываем то, что уже принято
+                queue.drainTo(batch);
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                flush(batch);
+            } catch (RuntimeException e) {
+                // Поток записи не должен умирать: комментарии пачки остались в журнале
+                log.error("Comment writer failed to flush {} comments", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingComment> batch) {
+        List<LoggedComment> comments = batch.stream().map(PendingComment::comment).toList();
+        boolean written;
+        try {
+            written = insertRetrying(comments);
+        } catch (DataIntegrityViolationException e) {
+            written = insertOneByOne(comments);
+        }
+        if (!written) {
+            // Комментарии остаются в журнале и будут записаны при следующем старте
+            return;
+        }
+        batch.forEach(pending -> entityVersions.touchItem(pending.item()));
+        accepted.release(batch.size());
+        Map<Long, Long> perSegment = batch.stream()
+                .collect(Collectors.groupingBy(PendingComment::segment, Collectors.counting()));
+        try {
+            for (Map.Entry<Long, Long> segment : perSegment.entrySet()) {
+                writeAheadLog.written(segment.getKey(), segment.getValue().intValue());
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete flushed comment log segment: {}", e.getMessage());
+        }
+    }
+
+    private boolean insertOneByOne(List<LoggedComment> comments) {
+        for (LoggedComment comment : comments) {
+            try {
+                if (!insertRetrying(List.of(comment))) {
+                    return false;
+                }
+            } catch (DataIntegrityViolationException e) {
+                // Бронирование, вещь и автор удалены после проверки: такой комментарий записать нельзя
+                dropped.increment();
+                log.error("Dropping comment {}: {}", comment.id(), e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Повторяет вставку, пока она не пройдёт. Нарушение целостности не повторяется, а пробрасывается.
+     * Возвращает {@code false}, если запись прервана остановкой.
+     */
+    private boolean insertRetrying(List<LoggedComment> comments) {
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(comments));
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                // Не только DataAccessException: недоступная база приходит как CannotCreateTransactionException
+                if (!running) {
+                    return false;
+                }
+                log.warn("Comment batch of {} failed, retrying: {}", comments.size(), e.getMessage());
+                if (!sleep(retryDelay)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void insert(List<LoggedComment> comments) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, comments, comments.size(), BatchingCommentWriter::bind);
+    }
+
+    private static void bind(PreparedStatement statement, LoggedComment comment) throws SQLException {
+        statement.setLong(1, comment.id());
+        statement.setString(2, comment.text());
+        statement.setLong(3, comment.itemId());
+        statement.setLong(4, comment.authorId());
+        statement.setObject(5, comment.createdAt());
+        statement.setLong(6, comment.id());
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record PendingComment(LoggedComment comment, Item item, long segment) {
+    }
+}
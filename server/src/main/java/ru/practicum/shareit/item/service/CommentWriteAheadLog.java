@@ -0,0 +1,150 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Журнал комментариев, принятых, но ещё не записанных в базу: по строке JSON на комментарий.
+ * Запись сбрасывается на диск до ответа клиенту. Журнал разбит на сегменты {@code <путь>.<номер>}:
+ * дописывается последний, а закрытый сегмент удаляется, как только все его комментарии оказались в базе.
+ */
+@Slf4j
+class CommentWriteAheadLog implements Closeable {
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final long segmentBytes;
+    // Сегменты, оставшиеся от прошлого запуска: их проигрывают и удаляют при старте
+    private final List<Path> previousSegments;
+    // Сколько комментариев каждого сегмента ещё не записано в базу
+    private final Map<Long, Integer> unwritten = new HashMap<>();
+    private long segment;
+    private FileChannel channel;
+
+    CommentWriteAheadLog(Path path, ObjectMapper objectMapper, long segmentBytes) throws IOException {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.segmentBytes = segmentBytes;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.previousSegments = findSegments();
+        this.segment = previousSegments.isEmpty() ? 1 : numberOf(previousSegments.getLast()) + 1;
+        this.channel = open(segment);
+    }
+
+    /**
+     * Дописывает комментарий и возвращает номер сегмента, который нужно передать в {@link #written}.
+     */
+    synchronized long append(LoggedComment comment) throws IOException {
+        byte[] line = objectMapper.writeValueAsBytes(comment);
+        ByteBuffer buffer = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip();
+        long position = channel.size();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        channel.force(false);
+
+        long appendedTo = segment;
+        unwritten.merge(appendedTo, 1, Integer::sum);
+        if (position >= segmentBytes) {
+            rotate();
+        }
+        return appendedTo;
+    }
+
+    /**
+     * Отмечает комментарий из сегмента записанным в базу. Закрытый сегмент без незаписанных комментариев удаляется.
+     */
+    synchronized void written(long segment, int count) throws IOException {
+        Integer left = unwritten.computeIfPresent(segment, (number, unwrittenCount) ->
+                unwrittenCount > count ? unwrittenCount - count : null);
+        if (left == null && segment != this.segment) {
+            Files.deleteIfExists(segmentPath(segment));
+        }
+    }
+
+    synchronized List<LoggedComment> readPrevious() throws IOException {
+        List<LoggedComment> comments = new ArrayList<>();
+        for (Path previous : previousSegments) {
+            for (String line : Files.readAllLines(previous, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    comments.add(objectMapper.readValue(line, LoggedComment.class));
+                } catch (IOException e) {
+                    // Оборванная при сбое последняя строка: клиент не получил ответа на этот комментарий
+                    log.warn("Skipping damaged comment log line in {}: {}", previous, e.getMessage());
+                }
+            }
+        }
+        return comments;
+    }
+
+    synchronized void deletePrevious() throws IOException {
+        for (Path previous : previousSegments) {
+            Files.deleteIfExists(previous);
+        }
+        previousSegments.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+        if (!unwritten.containsKey(segment)) {
+            Files.deleteIfExists(segmentPath(segment));
+        }
+    }
+
+    private void rotate() throws IOException {
+        channel.close();
+        if (!unwritten.containsKey(segment)) {
+            Files.deleteIfExists(segmentPath(segment));
+        }
+        segment++;
+        channel = open(segment);
+    }
+
+    private FileChannel open(long number) throws IOException {
+        return FileChannel.open(segmentPath(number), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    private Path segmentPath(long number) {
+        return path.resolveSibling(path.getFileName() + "." + number);
+    }
+
+    private List<Path> findSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        Path directory = path.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, path.getFileName() + ".*")) {
+            for (Path candidate : stream) {
+                if (numberOf(candidate) > 0) {
+                    segments.add(candidate);
+                }
+            }
+        }
+        segments.sort(Comparator.comparingLong(this::numberOf));
+        return segments;
+    }
+
+    private long numberOf(Path segmentPath) {
+        String suffix = segmentPath.getFileName().toString().substring(path.getFileName().toString().length() + 1);
+        try {
+            return Long.parseLong(suffix);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
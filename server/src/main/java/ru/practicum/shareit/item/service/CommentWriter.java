@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.model.Comment;
+
+public interface CommentWriter {
+    /**
+     * Сохраняет проверенный комментарий и возвращает его с присвоенным id.
+     */
+    Comment write(Comment comment);
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.repository.CommentRepository;
+
+@Component
+@ConditionalOnProperty(name = "shareit.comments.writer", havingValue = "direct", matchIfMissing = true)
+public class DirectCommentWriter implements CommentWriter {
+    private final CommentRepository commentRepository;
+
+    public DirectCommentWriter(CommentRepository commentRepository) {
+        this.commentRepository = commentRepository;
+    }
+
+    @Override
+    public Comment write(Comment comment) {
+        return commentRepository.save(comment);
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.ndjson.NdjsonWriters;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Импорт вещей из NDJSON: строки читаются потоковым парсером, проверяются и сохраняются пачками,
+ * а отчёт по каждой строке пишется в ответ сразу после сохранения пачки. В памяти держится не больше
+ * одной пачки, поэтому объём загрузки не ограничен. Каждая пачка сохраняется в своей транзакции,
+ * после чего контекст персистентности очищается: при open-in-view он живёт до конца загрузки.
+ */
+@Slf4j
+@Component
+public class ItemImporter {
+    static final int CHUNK_SIZE = 500;
+
+    private final ItemService itemService;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    public ItemImporter(ItemService itemService, ObjectMapper objectMapper, EntityManager entityManager) {
+        this.itemService = itemService;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+    }
+
+    public void importItems(long userId, InputStream in, OutputStream out) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(in);
+             SequenceWriter report = NdjsonWriters.open(objectMapper, out)) {
+            MappingIterator<ItemCreateDto> values = objectMapper.readerFor(ItemCreateDto.class).readValues(parser);
+            List<Line> chunk = new ArrayList<>(CHUNK_SIZE);
+            boolean hasNext = true;
+            while (hasNext) {
+                Line line;
+                try {
+                    hasNext = values.hasNextValue();
+                    line = hasNext ? Line.of(parser, values.nextValue()) : null;
+                } catch (JsonParseException e) {
+                    // После синтаксической ошибки граница следующей строки неизвестна, разбор прекращается
+                    line = Line.failed(parser, "Некорректный JSON: " + e.getOriginalMessage());
+                    hasNext = false;
+                } catch (JsonMappingException e) {
+                    line = Line.failed(parser, "Некорректная вещь: " + e.getOriginalMessage());
+                }
+                if (line != null) {
+                    chunk.add(line);
+                }
+                if (chunk.size() == CHUNK_SIZE || !hasNext && !chunk.isEmpty()) {
+                    save(userId, chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+    }
+
+    private void save(long userId, List<Line> chunk, SequenceWriter report) throws IOException {
+        List<ItemCreateDto> valid = chunk.stream()
+                .filter(line -> line.error() == null)
+                .map(Line::item)
+                .toList();
+
+        List<Item> saved = List.of();
+        String failure = null;
+        if (!valid.isEmpty()) {
+            try {
+                saved = itemService.createItems(userId, valid);
+            } catch (RuntimeException e) {
+                log.error("Item import chunk failed: {}", e.getMessage(), e);
+                failure = "Не удалось сохранить вещь: " + e.getMessage();
+            }
+            // Сохранённые вещи больше не нужны, иначе они копятся в привязанном к запросу EntityManager
+            entityManager.clear();
+        }
+
+        int next = 0;
+        for (Line line : chunk) {
+            if (line.error() != null) {
+                report.write(ItemImportResultDto.failed(line.number(), line.error()));
+            } else if (failure != null) {
+                report.write(ItemImportResultDto.failed(line.number(), failure));
+            } else {
+                report.write(ItemImportResultDto.created(line.number(), saved.get(next++).getId()));
+            }
+        }
+        report.flush();
+    }
+
+    private record Line(long number, ItemCreateDto item, String error) {
+        static Line of(JsonParser parser, ItemCreateDto item) {
+            long number = parser.currentLocation().getLineNr();
+            String error = validate(item);
+            return new Line(number, error == null ? item : null, error);
+        }
+
+        static Line failed(JsonParser parser, String error) {
+            return new Line(parser.currentLocation().getLineNr(), null, error);
+        }
+
+        private static String validate(ItemCreateDto item) {
+            if (item == null) {
+                return "Ожидался объект вещи";
+            }
+            if (item.getName() == null || item.getName().isBlank()) {
+                return "Наименование не может быть пустым";
+            }
+            if (item.getDescription() == null || item.getDescription().isBlank()) {
+                return "Описание не может быть пустым";
+            }
+            if (item.getAvailable() == null) {
+                return "Доступность аренды должна быть указана";
+            }
+            return null;
+        }
+    }
+}
@@ -1,23 +1,34 @@
 package ru.practicum.shareit.item.service;
 
+import org.springframework.util.function.ThrowingConsumer;
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemExportDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemService {
     Item createItem(long userId, ItemCreateDto itemCreateDto);
 
+    List<Item> createItems(long userId, List<ItemCreateDto> itemCreateDtos);
+
     Item updateItem(long userId, long itemId, ItemDto itemDto);
 
     Item getItemById(long itemId);
 
+    Item lockItem(long itemId);
+
+    List<Item> lockItems(Collection<Long> itemIds);
+
     List<Item> getItemsByOwner(long userId);
 
-    List<Item> searchItems(String text);
+    void exportItemsByOwner(long userId, ThrowingConsumer<ItemExportDto> sink);
+
+    List<Item> searchItems(String text, int from, Integer size);
 
     Comment createComment(long userId, long itemId, CommentCreateDto commentCreateDto);
 }
@@ -3,24 +3,35 @@ package ru.practicum.shareit.item.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.function.ThrowingConsumer;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.etag.EntityVersions;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.WrongException;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemExportDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
@@ -31,14 +42,20 @@ public class ItemServiceImpl implements ItemService {
     private final CommentRepository commentRepository;
     private final BookingService bookingService;
     private final ItemRequestService itemRequestService;
+    private final ItemSearchEngine itemSearchEngine;
+    private final EntityVersions entityVersions;
+    private final CommentWriter commentWriter;
 
     @Autowired
-    public ItemServiceImpl(ItemRepository itemRepository, UserService userService, CommentRepository commentRepository, @Lazy BookingService bookingService, ItemRequestService itemRequestService) {
+    public ItemServiceImpl(ItemRepository itemRepository, UserService userService, CommentRepository commentRepository, @Lazy BookingService bookingService, ItemRequestService itemRequestService, ItemSearchEngine itemSearchEngine, EntityVersions entityVersions, CommentWriter commentWriter) {
         this.itemRepository = itemRepository;
         this.userService = userService;
         this.commentRepository = commentRepository;
         this.bookingService = bookingService;
         this.itemRequestService = itemRequestService;
+        this.itemSearchEngine = itemSearchEngine;
+        this.entityVersions = entityVersions;
+        this.commentWriter = commentWriter;
     }
 
     @Override
@@ -49,13 +66,33 @@ public class ItemServiceImpl implements ItemService {
         Item item = ItemMapper.INSTANCE.toItem(itemCreateDto);
         item.setOwner(user);
 
-        return itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        itemSearchEngine.index(saved);
+        entityVersions.touchItem(saved);
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<Item> createItems(long userId, List<ItemCreateDto> itemCreateDtos) {
+        User user = userService.getUserById(userId);
+
+        List<Item> items = itemCreateDtos.stream()
+                .map(ItemMapper.INSTANCE::toItem)
+                .peek(item -> item.setOwner(user))
+                .toList();
+
+        // id выдаются из последовательности пачками, поэтому вставки уходят JDBC-батчами при сбросе
+        List<Item> saved = itemRepository.saveAll(items);
+        saved.forEach(itemSearchEngine::index);
+        saved.forEach(entityVersions::touchItem);
+        return saved;
     }
 
     @Override
     @Transactional
     public Item updateItem(long userId, long itemId, ItemDto itemDto) {
-        userService.getUserById(userId);
+        userService.checkUserExists(userId);
         Item item = getItemById(itemId);
         if (itemDto.getName() != null) {
             item.setName(itemDto.getName());
@@ -66,7 +103,10 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null) {
             item.setAvailable(itemDto.getAvailable());
         }
-        return itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        itemSearchEngine.index(saved);
+        entityVersions.touchItem(saved);
+        return saved;
     }
 
     @Override
@@ -75,17 +115,60 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new NotFoundException("Вещь с ID " + itemId + " не найдена"));
     }
 
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Item lockItem(long itemId) {
+        return itemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new NotFoundException("Вещь с ID " + itemId + " не найдена"));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Item> lockItems(Collection<Long> itemIds) {
+        // Строки блокируются в порядке id, чтобы параллельные пакеты не взаимоблокировались
+        return itemRepository.findAllByIdInForUpdate(itemIds);
+    }
+
     @Override
     public List<Item> getItemsByOwner(long userId) {
-        return itemRepository.findAllByOwnerId(userId);
+        List<Item> items = itemRepository.findAllByOwnerId(userId);
+        if (items.isEmpty()) {
+            return items;
+        }
+        List<Long> itemIds = items.stream().map(Item::getId).toList();
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<Long, List<Comment>> comments = commentRepository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+        Map<Long, ItemBookingSummary> summaries = bookingService.getBookingSummaries(itemIds, now);
+
+        for (Item item : items) {
+            item.setComments(comments.getOrDefault(item.getId(), new ArrayList<>()));
+            ItemBookingSummary summary = summaries.get(item.getId());
+            if (summary != null) {
+                item.setLastBooking(summary.getLastBooking());
+                item.setNextBooking(summary.getNextBooking());
+            }
+        }
+        return items;
     }
 
     @Override
-    public List<Item> searchItems(String text) {
+    public void exportItemsByOwner(long userId, ThrowingConsumer<ItemExportDto> sink) {
+        try (Stream<ItemExportDto> items = itemRepository.streamAllByOwnerId(userId)) {
+            items.forEach(sink);
+        }
+    }
+
+    @Override
+    public List<Item> searchItems(String text, int from, Integer size) {
         if (text == null || text.isEmpty()) {
             return List.of();
         }
-        return itemRepository.search(text);
+        if (from < 0 || (size != null && size <= 0)) {
+            throw new WrongException("Некорректные параметры пагинации: from=" + from + ", size=" + size);
+        }
+        return itemSearchEngine.search(text, from, size);
     }
 
     @Override
@@ -105,7 +188,9 @@ public class ItemServiceImpl implements ItemService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        return commentRepository.save(comment);
+        Comment saved = commentWriter.write(comment);
+        entityVersions.touchItem(item);
+        return saved;
     }
 
 }
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.model.Comment;
+
+import java.time.LocalDateTime;
+
+record LoggedComment(Long id, Long itemId, Long authorId, String text, LocalDateTime createdAt) {
+
+    static LoggedComment of(Comment comment) {
+        return new LoggedComment(comment.getId(), comment.getItem().getId(), comment.getUser().getId(),
+                comment.getText(), comment.getCreatedAt());
+    }
+}
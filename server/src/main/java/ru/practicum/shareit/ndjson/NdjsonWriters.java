@@ -0,0 +1,24 @@
+package ru.practicum.shareit.ndjson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Запись NDJSON: по одному JSON-объекту на строку. Поток ответа не закрывается вместе с writer,
+ * им управляет контейнер.
+ */
+public final class NdjsonWriters {
+    private NdjsonWriters() {
+    }
+
+    public static SequenceWriter open(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        return objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(out);
+    }
+}
@@ -1,6 +1,10 @@
 package ru.practicum.shareit.request;
 
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.etag.EntityVersions;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -11,9 +15,14 @@ import java.util.List;
 @RequestMapping(path = "/requests")
 public class ItemRequestController {
     private final ItemRequestService itemRequestService;
+    private final EntityVersions entityVersions;
+    private final PrimaryReads primaryReads;
 
-    public ItemRequestController(ItemRequestService itemRequestService) {
+    public ItemRequestController(ItemRequestService itemRequestService, EntityVersions entityVersions,
+                                 PrimaryReads primaryReads) {
         this.itemRequestService = itemRequestService;
+        this.entityVersions = entityVersions;
+        this.primaryReads = primaryReads;
     }
 
 
@@ -35,19 +44,26 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getAllRequests(
-            @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public ResponseEntity<List<ItemRequestDto>> getAllRequests(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         return itemRequestService
-                .getAllRequests(userId)
-                .stream()
+                .getAllRequests(userId, cursor, size)
                 .map(ItemRequestMapper.INSTANCE::toItemRequestDto)
-                .toList();
+                .toResponse();
     }
 
     @GetMapping("/{requestId}")
     public ItemRequestDto getRequestById(
             @RequestHeader("X-Sharer-User-Id") Long userId,
-            @PathVariable Long requestId) {
-        return ItemRequestMapper.INSTANCE.toItemRequestDto(itemRequestService.getRequestById(userId, requestId));
+            @PathVariable Long requestId,
+            WebRequest request) {
+        if (request.checkNotModified(entityVersions.requestTag(requestId))) {
+            return null;
+        }
+        // Ответ уходит под текущим тегом, поэтому данные не должны отставать от него
+        return primaryReads.read(() ->
+                ItemRequestMapper.INSTANCE.toItemRequestDto(itemRequestService.getRequestById(userId, requestId)));
     }
 }
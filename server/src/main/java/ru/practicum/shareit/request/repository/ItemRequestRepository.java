@@ -1,19 +1,31 @@
 package ru.practicum.shareit.request.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
-    @Query("SELECT ir FROM ItemRequest ir WHERE ir.user.id = :requestorId ORDER BY ir.created DESC")
+    @Query("SELECT ir FROM ItemRequest ir JOIN FETCH ir.user WHERE ir.user.id = :requestorId " +
+            "ORDER BY ir.created DESC, ir.id DESC")
     List<ItemRequest> findAllByRequestorIdOrderByCreatedAtDesc(@Param("requestorId") long requestorId);
 
-    @Query("SELECT r FROM ItemRequest r WHERE r.user.id != :userId ORDER BY r.created DESC")
-    List<ItemRequest> findAllOtherUsersRequests(@Param("userId") long userId);
+    @Query("SELECT r FROM ItemRequest r JOIN FETCH r.user WHERE r.user.id != :userId " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findAllOtherUsersRequests(@Param("userId") long userId, Limit limit);
+
+    @Query("SELECT r FROM ItemRequest r JOIN FETCH r.user WHERE r.user.id != :userId " +
+            "AND (r.created < :created OR (r.created = :created AND r.id < :id)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findAllOtherUsersRequestsBefore(@Param("userId") long userId,
+                                                      @Param("created") LocalDateTime created,
+                                                      @Param("id") long id,
+                                                      Limit limit);
 
     @Query("SELECT r FROM ItemRequest r LEFT JOIN FETCH r.items WHERE r.id = :id")
     Optional<ItemRequest> findByIdWithItems(@Param("id") Long id);
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.service;
 
+import ru.practicum.shareit.pagination.KeysetPage;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 
@@ -10,7 +11,7 @@ public interface ItemRequestService {
 
     List<ItemRequest> getUserRequests(long userId);
 
-    List<ItemRequest> getAllRequests(long userId);
+    KeysetPage<ItemRequest> getAllRequests(long userId, String cursor, Integer size);
 
     ItemRequest getRequestById(long userId, long requestId);
 }
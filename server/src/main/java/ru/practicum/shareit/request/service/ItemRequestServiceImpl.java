@@ -1,9 +1,15 @@
 package ru.practicum.shareit.request.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.etag.EntityVersions;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.KeysetPage;
 import ru.practicum.shareit.request.ItemRequestMapper;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -11,18 +17,27 @@ import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final UserService userService;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final EntityVersions entityVersions;
 
     @Autowired
-    public ItemRequestServiceImpl(UserService userService, ItemRequestRepository itemRequestRepository) {
+    public ItemRequestServiceImpl(UserService userService, ItemRequestRepository itemRequestRepository,
+                                  ItemRepository itemRepository, EntityVersions entityVersions) {
         this.userService = userService;
         this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.entityVersions = entityVersions;
     }
 
     @Override
@@ -32,26 +47,54 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
         ItemRequest itemRequest = ItemRequestMapper.INSTANCE.toItemRequest(itemRequestCreateDto);
         itemRequest.setUser(user);
+        itemRequest.setCreated(LocalDateTime.now());
 
-        return itemRequestRepository.save(itemRequest);
+        ItemRequest saved = itemRequestRepository.save(itemRequest);
+        entityVersions.touchRequest(saved.getId());
+        return saved;
     }
 
     @Override
     public List<ItemRequest> getUserRequests(long userId) {
-        userService.getUserById(userId);
-        return itemRequestRepository.findAllByRequestorIdOrderByCreatedAtDesc(userId);
+        userService.checkUserExists(userId);
+        return withItems(itemRequestRepository.findAllByRequestorIdOrderByCreatedAtDesc(userId));
     }
 
     @Override
-    public List<ItemRequest> getAllRequests(long userId) {
-        userService.getUserById(userId);
-        return itemRequestRepository.findAllOtherUsersRequests(userId);
+    public KeysetPage<ItemRequest> getAllRequests(long userId, String cursor, Integer size) {
+        userService.checkUserExists(userId);
+        Integer fetchSize = KeysetPage.limitOf(size);
+        Limit limit = fetchSize == null ? Limit.unlimited() : Limit.of(fetchSize);
+        List<ItemRequest> requests;
+        if (cursor == null) {
+            requests = itemRequestRepository.findAllOtherUsersRequests(userId, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            requests = itemRequestRepository.findAllOtherUsersRequestsBefore(userId, after.position(), after.id(),
+                    limit);
+        }
+        return KeysetPage.of(withItems(requests), size,
+                request -> new KeysetCursor(request.getCreated(), request.getId()));
     }
 
     @Override
     public ItemRequest getRequestById(long userId, long requestId) {
-        userService.getUserById(userId);
+        userService.checkUserExists(userId);
         return itemRequestRepository.findByIdWithItems(requestId)
                 .orElseThrow(() -> new NotFoundException("Запрос с ID = " + requestId + " не найден"));
     }
+
+    private List<ItemRequest> withItems(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return requests;
+        }
+        // Ответы на все запросы одним запросом вместо ленивой загрузки коллекции у каждого
+        List<Long> requestIds = requests.stream().map(ItemRequest::getId).toList();
+        Map<Long, List<Item>> items = itemRepository.findAllByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        for (ItemRequest request : requests) {
+            request.setItems(items.getOrDefault(request.getId(), new ArrayList<>()));
+        }
+        return requests;
+    }
 }
@@ -0,0 +1,142 @@
+package ru.practicum.shareit.timing;
+
+import java.util.*;
+
+/**
+ * Иерархическое колесо таймеров. Нижний уровень делит время на тики, каждый следующий охватывает
+ * полный оборот предыдущего. Таймер кладётся на самый нижний уровень, который его вмещает, и по ходу
+ * времени спускается ниже, пока не сработает. Пустые ячейки не перебираются: непустые стоят в очереди
+ * по времени срабатывания.
+ *
+ * <p>Таймер срабатывает на первой границе тика не раньше своего срока. Класс не потокобезопасен.
+ */
+public class TimingWheel<T> {
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<Level> levels = new ArrayList<>();
+    private final PriorityQueue<Bucket<T>> buckets = new PriorityQueue<>(
+            Comparator.comparingLong(bucket -> bucket.expiration));
+    private final List<Timer<T>> overdue = new ArrayList<>();
+    private int size;
+
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("Некорректные параметры колеса: tick=" + tickMillis
+                    + ", size=" + wheelSize);
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        levels.add(new Level(tickMillis, startMillis));
+    }
+
+    public void schedule(long deadlineMillis, T task) {
+        // Ключ округляется вверх до тика, чтобы таймер не сработал раньше срока
+        long key = Math.min(saturatedAdd(deadlineMillis, tickMillis - 1), Long.MAX_VALUE - 1);
+        Timer<T> timer = new Timer<>(deadlineMillis, key, task);
+        if (!insert(timer)) {
+            overdue.add(timer);
+        }
+        size++;
+    }
+
+    /**
+     * Сдвигает время и возвращает сработавшие задачи в порядке сроков.
+     */
+    public List<T> advance(long nowMillis) {
+        List<Timer<T>> fired = new ArrayList<>(overdue);
+        overdue.clear();
+
+        Bucket<T> bucket;
+        while ((bucket = buckets.peek()) != null && bucket.expiration <= nowMillis) {
+            buckets.poll();
+            advanceClock(bucket.expiration);
+            List<Timer<T>> timers = bucket.flush();
+            for (Timer<T> timer : timers) {
+                if (!insert(timer)) {
+                    fired.add(timer);
+                }
+            }
+        }
+        advanceClock(nowMillis);
+
+        size -= fired.size();
+        fired.sort(Comparator.comparingLong(Timer::deadline));
+        return fired.stream().map(Timer::task).toList();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private boolean insert(Timer<T> timer) {
+        for (int i = 0; ; i++) {
+            Level level = levelAt(i);
+            if (timer.key() < saturatedAdd(level.currentTime, level.tick)) {
+                return false;
+            }
+            if (timer.key() < saturatedAdd(level.currentTime, level.interval)) {
+                long expiration = timer.key() - timer.key() % level.tick;
+                Bucket<T> bucket = level.slots.get((int) ((timer.key() / level.tick) % wheelSize));
+                bucket.timers.add(timer);
+                if (bucket.expiration != expiration) {
+                    bucket.expiration = expiration;
+                    buckets.add(bucket);
+                }
+                return true;
+            }
+        }
+    }
+
+    private Level levelAt(int index) {
+        if (index == levels.size()) {
+            Level lower = levels.get(index - 1);
+            levels.add(new Level(lower.interval, lower.currentTime));
+        }
+        return levels.get(index);
+    }
+
+    private void advanceClock(long time) {
+        for (Level level : levels) {
+            if (time >= saturatedAdd(level.currentTime, level.tick)) {
+                level.currentTime = time - time % level.tick;
+            }
+        }
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return ((a ^ sum) & (b ^ sum)) < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private record Timer<T>(long deadline, long key, T task) {
+    }
+
+    private static final class Bucket<T> {
+        private List<Timer<T>> timers = new ArrayList<>();
+        private long expiration = -1;
+
+        List<Timer<T>> flush() {
+            List<Timer<T>> flushed = timers;
+            timers = new ArrayList<>();
+            expiration = -1;
+            return flushed;
+        }
+    }
+
+    private final class Level {
+        private final long tick;
+        private final long interval;
+        private final List<Bucket<T>> slots;
+        private long currentTime;
+
+        Level(long tick, long startMillis) {
+            this.tick = tick;
+            this.interval = tick > Long.MAX_VALUE / wheelSize ? Long.MAX_VALUE : tick * wheelSize;
+            this.currentTime = startMillis - startMillis % tick;
+            this.slots = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                slots.add(new Bucket<>());
+            }
+        }
+    }
+}
@@ -11,6 +11,8 @@ public interface UserService {
 
     User getUserById(long id);
 
+    void checkUserExists(long id);
+
     void deleteUser(long id);
 
     void existsByEmail(String email);
@@ -1,8 +1,17 @@
 package ru.practicum.shareit.user.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.etag.EntityVersions;
 import ru.practicum.shareit.exception.AlreadyExistsException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.user.UserMapper;
@@ -11,15 +20,33 @@ import ru.practicum.shareit.user.dto.UserUpdateDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.Duration;
+
 @Service
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final EntityVersions entityVersions;
+    private final PrimaryReads primaryReads;
+    private final Cache<Long, User> users;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository,
+                           EntityVersions entityVersions,
+                           PrimaryReads primaryReads,
+                           MeterRegistry meterRegistry,
+                           @Value("${shareit.cache.users.maximum-size:10000}") long maximumSize,
+                           @Value("${shareit.cache.users.expire-after-write:PT5M}") Duration expireAfterWrite) {
         this.userRepository = userRepository;
+        this.entityVersions = entityVersions;
+        this.primaryReads = primaryReads;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
     }
 
     @Override
@@ -32,7 +59,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public User updateUser(long id, UserUpdateDto userUpdateDto) {
-        User existingUser = getUserById(id);
+        User existingUser = findUser(id);
 
         if (userUpdateDto.getName() != null) {
             existingUser.setName(userUpdateDto.getName());
@@ -43,20 +70,35 @@ public class UserServiceImpl implements UserService {
             existingUser.setEmail(userUpdateDto.getEmail());
         }
 
-        return userRepository.save(existingUser);
+        User saved = userRepository.save(existingUser);
+        evict(id);
+        return saved;
     }
 
     @Override
     public User getUserById(long id) {
-        return userRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Пользователь с ID " + id + " не найден"));
+        User user = users.getIfPresent(id);
+        if (user == null) {
+            // Пользователь с отстающей реплики остался бы в кэше до expire-after-write
+            user = copyOf(primaryReads.read(() -> findUser(id)));
+            users.put(id, user);
+        }
+        return copyOf(user);
+    }
+
+    @Override
+    public void checkUserExists(long id) {
+        if (users.getIfPresent(id) == null && !userRepository.existsById(id)) {
+            throw new NotFoundException("Пользователь с ID " + id + " не найден");
+        }
     }
 
     @Override
     @Transactional
     public void deleteUser(long id) {
-        getUserById(id);
+        checkUserExists(id);
         userRepository.deleteById(id);
+        evict(id);
     }
 
     @Override
@@ -65,4 +107,31 @@ public class UserServiceImpl implements UserService {
             throw new AlreadyExistsException("Пользователь с " + email + " уже существует");
         }
     }
+
+    private User findUser(long id) {
+        return userRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Пользователь с ID " + id + " не найден"));
+    }
+
+    private void evict(long id) {
+        entityVersions.touchUsers();
+        users.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Повторно после коммита, чтобы не осталась версия, прочитанная параллельным запросом до коммита
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    users.invalidate(id);
+                }
+            });
+        }
+    }
+
+    private static User copyOf(User user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .build();
+    }
 }
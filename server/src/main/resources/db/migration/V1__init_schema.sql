@@ -1,22 +1,24 @@
 CREATE TABLE IF NOT EXISTS users
 (
-    id    BIGSERIAL PRIMARY KEY,
+    id    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name  VARCHAR(255)        NOT NULL,
     email VARCHAR(512) UNIQUE NOT NULL
 );
 
 CREATE TABLE IF NOT EXISTS requests
 (
-    id           BIGSERIAL PRIMARY KEY,
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     description  TEXT   NOT NULL,
     requestor_id BIGINT NOT NULL,
     created      TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (requestor_id) REFERENCES users (id)
 );
 
+CREATE SEQUENCE IF NOT EXISTS item_request_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS items
 (
-    id           BIGSERIAL PRIMARY KEY,
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name         VARCHAR(255) NOT NULL,
     description  TEXT         NOT NULL,
     is_available BOOLEAN      NOT NULL,
@@ -26,21 +28,9 @@ CREATE TABLE IF NOT EXISTS items
     FOREIGN KEY (request_id) REFERENCES requests (id)
 );
 
-CREATE TABLE IF NOT EXISTS item_request
-(
-    id         BIGSERIAL PRIMARY KEY,
-    created_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
-    text       TEXT   NOT NULL,
-    item_id    BIGINT NOT NULL,
-    author_id  BIGINT NOT NULL,
-
-    FOREIGN KEY (author_id) REFERENCES users (id),
-    FOREIGN KEY (item_id) REFERENCES items (id)
-);
-
 CREATE TABLE IF NOT EXISTS bookings
 (
-    id         BIGSERIAL PRIMARY KEY,
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     item_id    BIGINT                      NOT NULL,
@@ -52,7 +42,7 @@ CREATE TABLE IF NOT EXISTS bookings
 
 CREATE TABLE IF NOT EXISTS comments
 (
-    id         BIGSERIAL PRIMARY KEY,
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     text       TEXT   NOT NULL,
     item_id    BIGINT NOT NULL,
     author_id  BIGINT NOT NULL,
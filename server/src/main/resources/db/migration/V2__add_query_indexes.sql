@@ -0,0 +1,23 @@
+-- bookings: booker_id = ? ORDER BY start_date DESC, id DESC
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date DESC, id DESC);
+
+-- bookings: item_id = ? [AND status IN (...)] / item_id IN (...) AND start_date > ?
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_date);
+
+-- bookings: item_id IN (...) AND end_date < ?
+CREATE INDEX IF NOT EXISTS bookings_item_end_idx ON bookings (item_id, end_date);
+
+-- bookings: booker_id = ? AND item_id = ? AND end_date < ?
+CREATE INDEX IF NOT EXISTS bookings_booker_item_end_idx ON bookings (booker_id, item_id, end_date);
+
+-- items: owner_id = ? ORDER BY id
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id, id);
+
+-- items: request_id = ?
+CREATE INDEX IF NOT EXISTS items_request_idx ON items (request_id);
+
+-- comments: item_id IN (...) ORDER BY created_at
+CREATE INDEX IF NOT EXISTS comments_item_created_idx ON comments (item_id, created_at);
+
+-- requests: requestor_id = ? ORDER BY created DESC
+CREATE INDEX IF NOT EXISTS requests_requestor_created_idx ON requests (requestor_id, created DESC);
@@ -0,0 +1,19 @@
+CREATE TABLE IF NOT EXISTS item_booking_summary
+(
+    item_id         BIGINT PRIMARY KEY,
+    last_booking_id BIGINT,
+    next_booking_id BIGINT,
+    computed_at     TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    valid_until     TIMESTAMP WITHOUT TIME ZONE,
+    FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
+    FOREIGN KEY (last_booking_id) REFERENCES bookings (id) ON DELETE SET NULL,
+    FOREIGN KEY (next_booking_id) REFERENCES bookings (id) ON DELETE SET NULL
+);
+
+-- item_booking_summary: valid_until <= ? AND item_id > ? ORDER BY item_id
+CREATE INDEX IF NOT EXISTS item_booking_summary_valid_until_idx ON item_booking_summary (valid_until, item_id);
+
+-- Уже существующие вещи с бронированиями получают устаревшие строки, их пересчитает планировщик
+INSERT INTO item_booking_summary (item_id, computed_at, valid_until)
+SELECT DISTINCT item_id, TIMESTAMP '1970-01-01 00:00:00', TIMESTAMP '1970-01-01 00:00:00'
+FROM bookings;
@@ -0,0 +1,6 @@
+-- Курсор по (created, id) не работает с пустыми датами: старые строки получают время миграции
+UPDATE requests SET created = CURRENT_TIMESTAMP WHERE created IS NULL;
+ALTER TABLE requests ALTER COLUMN created SET NOT NULL;
+
+-- requests: requestor_id <> ? [AND (created, id) < (?, ?)] ORDER BY created DESC, id DESC
+CREATE INDEX IF NOT EXISTS requests_created_id_idx ON requests (created DESC, id DESC);
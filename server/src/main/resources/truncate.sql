@@ -1,6 +1,5 @@
 TRUNCATE TABLE users;
 TRUNCATE TABLE requests;
 TRUNCATE TABLE items;
-TRUNCATE TABLE item_request;
 TRUNCATE TABLE bookings;
 TRUNCATE TABLE comments;
\ No newline at end of file
@@ -0,0 +1,37 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class IdSequenceTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void insertsAroundJpaDoNotReuseHibernateIds() {
+        userRepository.save(User.builder().name("jpa").email("jpa@shareit.ru").build());
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('sql', 'sql@shareit.ru')");
+
+        // Остаток блока pooled-lo и следующий блок не должны пересечься с id, выданным базой
+        List<User> users = IntStream.range(0, 60)
+                .mapToObj(i -> User.builder().name("jpa" + i).email("jpa" + i + "@shareit.ru").build())
+                .toList();
+        userRepository.saveAll(users);
+
+        assertEquals(62, userRepository.count());
+    }
+}
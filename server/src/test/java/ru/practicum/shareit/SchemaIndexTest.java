@@ -0,0 +1,119 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Проверяет планы SQL, который на самом деле строят репозитории: запросы перехватываются
+ * {@link StatementInspector}, а затем для каждого выполняется EXPLAIN.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.SchemaIndexTest$RecordingStatementInspector")
+class SchemaIndexTest {
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final List<Long> IDS = List.of(1L, 2L, 3L);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @BeforeEach
+    void clearRecorded() {
+        RecordingStatementInspector.STATEMENTS.get().clear();
+    }
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                query("бронирования арендатора", "bookings",
+                        test -> test.bookingRepository.findByUserIdAndState(1L, BookingState.ALL, NOW, null, 11)),
+                query("бронирования владельца", "bookings",
+                        test -> test.bookingRepository.findByItemOwnerIdAndState(1L, BookingState.ALL, NOW, null, 11)),
+                query("активные бронирования вещи", "bookings",
+                        test -> test.bookingRepository.findByItemIdAndStatusIn(1L,
+                                EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED))),
+                query("последнее и следующее бронирования", "bookings",
+                        test -> test.bookingRepository.findLastAndNextByItemIdIn(IDS, NOW)),
+                query("граница сводки бронирований", "bookings",
+                        test -> test.bookingRepository.findNextBoundaryByItemIdIn(IDS, NOW)),
+                query("право на отзыв", "bookings",
+                        test -> test.bookingRepository.existsByUser_IdAndItemIdAndEndBefore(1L, 1L, NOW)),
+                query("вещи владельца", "items",
+                        test -> test.itemRepository.findAllByOwnerId(1L)),
+                query("вещи по запросам", "items",
+                        test -> test.itemRepository.findAllByRequestIdIn(IDS)),
+                query("комментарии вещей", "comments",
+                        test -> test.commentRepository.findAllByItemIdIn(IDS)),
+                query("свои запросы", "requests",
+                        test -> test.itemRequestRepository.findAllByRequestorIdOrderByCreatedAtDesc(1L)),
+                query("чужие запросы", "requests",
+                        test -> test.itemRequestRepository.findAllOtherUsersRequests(1L, Limit.of(11))),
+                query("устаревшие сводки", "item_booking_summary",
+                        test -> test.summaryRepository.findStaleItemIds(NOW, 0L, PageRequest.of(0, 100)))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void repositoryQueryUsesIndex(String description, String table, Consumer<SchemaIndexTest> query) {
+        query.accept(this);
+
+        List<String> selects = RecordingStatementInspector.STATEMENTS.get().stream()
+                .filter(sql -> sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select"))
+                .toList();
+        assertFalse(selects.isEmpty(), "Репозиторий не выполнил ни одного запроса");
+        String tableScan = "PUBLIC." + table.toUpperCase(Locale.ROOT) + ".tableScan";
+        for (String sql : selects) {
+            // Значения параметров не влияют на выбор индекса, поэтому все они NULL
+            Object[] parameters = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+
+            assertFalse(plan.contains(tableScan), () -> "Полный просмотр " + table + " в плане: " + plan);
+        }
+    }
+
+    private static Arguments query(String description, String table, Consumer<SchemaIndexTest> query) {
+        return Arguments.of(description, table, query);
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+        // Только запросы потока теста: фоновые задачи приложения сюда не попадают
+        static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.get().add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.NotAvailableException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookingApprovalConcurrencyTest {
+    private static final int ITEMS = 20;
+    private static final int BOOKINGS_PER_ITEM = 100;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void concurrentApprovalsNeverDoubleBook() throws Exception {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@shareit.ru").build());
+        User booker = userRepository.save(User.builder().name("booker").email("booker@shareit.ru").build());
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+
+        // Пересекающиеся заявки пишутся напрямую в базу, как если бы их приняли разные экземпляры сервера
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = itemRepository.save(Item.builder()
+                    .name("item" + i)
+                    .description("description" + i)
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                LocalDateTime start = base.plusMinutes(j);
+                bookings.add(Booking.builder()
+                        .start(start)
+                        .end(start.plusDays(1))
+                        .item(item)
+                        .user(booker)
+                        .status(BookingStatus.WAITING)
+                        .build());
+            }
+        }
+        bookings = bookingRepository.saveAll(bookings);
+
+        // Каждое бронирование подтверждается дважды, чтобы конфликтовали и разные заявки, и одна и та же
+        List<Long> approvals = new ArrayList<>();
+        bookings.forEach(booking -> {
+            approvals.add(booking.getId());
+            approvals.add(booking.getId());
+        });
+        Collections.shuffle(approvals, new Random(42));
+
+        AtomicInteger rejected = new AtomicInteger();
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = approvals.stream()
+                    .map(bookingId -> executor.submit(() -> {
+                        start.await();
+                        try {
+                            bookingService.updateBooking(owner.getId(), bookingId, true);
+                        } catch (NotAvailableException e) {
+                            rejected.incrementAndGet();
+                        } catch (Throwable e) {
+                            unexpected.add(e);
+                        }
+                        return null;
+                    }))
+                    .collect(Collectors.toList());
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(unexpected.isEmpty(), () -> "Неожиданные ошибки: " + unexpected);
+
+        Map<Long, List<Booking>> approvedByItem = bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        assertEquals(ITEMS, approvedByItem.size());
+        approvedByItem.forEach((itemId, approved) ->
+                assertEquals(1, approved.size(), () -> "Вещь " + itemId + " подтверждена дважды: " + approved));
+        assertTrue(rejected.get() > 0);
+    }
+}
@@ -1,22 +1,43 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.util.MultiValueMap;
 import ru.practicum.shareit.AbstractControllerTest;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingStateScheduler;
+import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.utils.RandomUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.booking.model.BookingState.*;
 import static ru.practicum.shareit.booking.model.BookingStatus.APPROVED;
 import static ru.practicum.shareit.utils.HttpMethodEnum.*;
 
 class BookingControllerTest extends AbstractControllerTest {
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private BookingStateScheduler bookingStateScheduler;
+    @Autowired
+    private CommentRepository commentRepository;
 
     @Test
     void createBooking() throws Exception {
@@ -113,6 +134,48 @@ class BookingControllerTest extends AbstractControllerTest {
                 .andExpect(jsonPath("$.length()").value(1));
     }
 
+    @Test
+    void getBookingsByUserKeepsEntityShape() throws Exception {
+        User booker = createUser();
+        MultiValueMap<String, String> bookerHeaders = createHeaders(X_SHARER_USER_ID, booker.getId().toString());
+        User owner = createUser();
+        MultiValueMap<String, String> ownerHeaders = createHeaders(X_SHARER_USER_ID, owner.getId().toString());
+        Item item = createItem(ownerHeaders, true);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = LocalDateTime.now().plusDays(2);
+        Booking first = createBooking(bookerHeaders, item.getId(), start, end);
+        Booking second = createBooking(bookerHeaders, item.getId(), start.plusDays(2), end.plusDays(2));
+        commentRepository.save(Comment.builder()
+                .text("Comment")
+                .item(item)
+                .user(booker)
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        performRequest(GET, "/bookings", bookerHeaders)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(second.getId()))
+                .andExpect(jsonPath("$[0].start").exists())
+                .andExpect(jsonPath("$[0].end").exists())
+                .andExpect(jsonPath("$[0].status").value(WAITING.name()))
+                .andExpect(jsonPath("$[0].item.id").value(item.getId()))
+                .andExpect(jsonPath("$[0].item.name").value(item.getName()))
+                .andExpect(jsonPath("$[0].item.description").value(item.getDescription()))
+                .andExpect(jsonPath("$[0].item.available").value(true))
+                .andExpect(jsonPath("$[0].item.owner.id").value(owner.getId()))
+                .andExpect(jsonPath("$[0].item.owner.email").value(owner.getEmail()))
+                .andExpect(jsonPath("$[0].item.request").isEmpty())
+                .andExpect(jsonPath("$[0].item.comments.length()").value(1))
+                .andExpect(jsonPath("$[0].item.comments[0].text").value("Comment"))
+                .andExpect(jsonPath("$[0].item.comments[0].item").value(item.getId()))
+                .andExpect(jsonPath("$[0].booker.id").value(booker.getId()))
+                .andExpect(jsonPath("$[0].booker.name").value(booker.getName()))
+                .andExpect(jsonPath("$[0].booker.email").value(booker.getEmail()))
+                // Как и при сериализации сущностей, повторная вещь заменяется её id
+                .andExpect(jsonPath("$[1].id").value(first.getId()))
+                .andExpect(jsonPath("$[1].item").value(item.getId()));
+    }
+
     @Test
     void getBookingsByOwner() throws Exception {
         User owner = createUser();
@@ -388,4 +451,269 @@ class BookingControllerTest extends AbstractControllerTest {
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].status").value(REJECTED.name()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void createOverlappingBookingShouldFail() throws Exception {
+        User owner = createUser();
+        MultiValueMap<String, String> ownerHeaders = createHeaders(X_SHARER_USER_ID, owner.getId().toString());
+        Item item = createItem(ownerHeaders, true);
+
+        User booker = createUser();
+        MultiValueMap<String, String> bookerHeaders = createHeaders(X_SHARER_USER_ID, booker.getId().toString());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = LocalDateTime.now().plusDays(3);
+        createBooking(bookerHeaders, item.getId(), start, end);
+
+        User otherBooker = createUser();
+        MultiValueMap<String, String> otherBookerHeaders = createHeaders(X_SHARER_USER_ID,
+                otherBooker.getId().toString());
+        String jsonBooking = createJson(bookingDtoToMap(
+                RandomUtils.getBooking(item.getId(), start.plusDays(1), end.plusDays(1))));
+
+        performRequest(POST, "/bookings", jsonBooking, otherBookerHeaders)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Bad Request"))
+                .andExpect(jsonPath("$.message.error").value("Вещь уже забронирована на указанный период"));
+    }
+
+    @Test
+    void createAdjacentBooking() throws Exception {
+        User owner = createUser();
+        MultiValueMap<String, String> ownerHeaders = createHeaders(X_SHARER_USER_ID, owner.getId().toString());
+        Item item = createItem(ownerHeaders, true);
+
+        User booker = createUser();
+        MultiValueMap<String, String> bookerHeaders = createHeaders(X_SHARER_USER_ID, booker.getId().toString());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = LocalDateTime.now().plusDays(2);
+        createBooking(bookerHeaders, item.getId(), start, end);
+        createBooking(bookerHeaders, item.getId(), end, end.plusDays(1));
+
+        performRequest(GET, "/bookings/owner", ownerHeaders)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void createBookingOverRejectedBooking() throws Exception {
+        User owner = createUser();
+        MultiValueMap<String, String> ownerHeaders = createHeaders(X_SHARER_USER_ID, owner.getId().toString());
+        Item item = createItem(ownerHeaders, true);
+
+        User booker = createUser();
+        MultiValueMap<String, String> bookerHeaders = createHeaders(X_SHARER_USER_ID, booker.getId().toString());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = LocalDateTime.now().plusDays(2);
+        Booking booking = createBooking(bookerHeaders, item.getId(), start, end);
+
+        performRequest(PATCH, "/bookings/" + booking.getId() + "?approved=false", ownerHeaders)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(REJECTED.name()));
+
+        Booking rebooked = createBooking(bookerHeaders, item.getId(), start, end);
+
+        performRequest(PATCH, "/bookings/" + rebooked.getId() + "?approved=true", ownerHeaders)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(APPROVED.name()));
+    }
+
+    @Test
+    void getBookingsByOwnerPaged() throws Exception {
+        User owner = createUser();
+        MultiValueMap<String, String> ownerHeaders = createHeaders(X_SHARER_USER_ID, owner.getId().toString());
+        Item item = createItem(ownerHeaders, true);
+
+        User booker = createUser();
+        MultiValueMap<String, String> bookerHeaders = createHeaders(X_SHARER_USER_ID, booker.getId().toString());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking first = createBooking(bookerHeaders, item.getId(), start, start.plusDays(1));
+        Booking second = createBooking(bookerHeaders, item.getId(), start.plusDays(1), start.plusDays(2));
+        Booking third = createBooking(bookerHeaders, item.getId(), start.plusDays(2), start.plusDays(3));
+
+        String cursor = performRequest(GET, "/bookings/owner?size=2", ownerHeaders)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(third.getId()))
+                .andExpect(jsonPath("$[1].id").value(second.getId()))
+                .andExpect(header().exists(BookingController.NEXT_CURSOR_HEADER))
+                .andReturn().getResponse().getHeader(BookingController.NEXT_CURSOR_HEADER);
+
+        performRequest(GET, "/bookings/owner?size=2&cursor=" + cursor, ownerHeaders)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(first.getId()))
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getBookingsByUserWithWrongCursor() throws Exception {
+        User booker = createUser();
+        MultiValueMap<String, String> bookerHeaders = createHeaders(X_SHARER_USER_ID, booker.getId().toString());
+
+        performRequest(GET, "/bookings?size=2&cursor=wrong", bookerHeaders)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Bad Request"));
+    }
+
+    @Test
+    void updateBookingsInBulk() throws Exception {
+        User owner = createUser();
+        MultiValueMap<String, String> ownerHeaders = createHeaders(X_SHARER_USER_ID, owner.getId().toString());
+        Item item = createItem(ownerHeaders, true);
+
+        User booker = createUser();
+        MultiValueMap<String, String> bookerHeaders = createHeaders(X_SHARER_USER_ID, booker.getId().toString());
+        Item foreignItem = createItem(bookerHeaders, true);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking first = createBooking(bookerHeaders, item.getId(), start, start.plusDays(1));
+        Booking second = createBooking(bookerHeaders, item.getId(), start.plusDays(1), start.plusDays(2));
+        Booking foreign = createBooking(ownerHeaders, foreignItem.getId(), start, start.plusDays(1));
+
+        String json = objectMapper.writeValueAsString(List.of(
+                Map.of("bookingId", first.getId(), "approved", true),
+                Map.of("bookingId", second.getId(), "approved", false),
+                Map.of("bookingId", foreign.getId(), "approved", true),
+                Map.of("bookingId", 999, "approved", true)
+        ));
+
+        performRequest(PATCH, "/bookings/bulk", json, ownerHeaders)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].bookingId").value(first.getId()))
+                .andExpect(jsonPath("$[0].status").value(APPROVED.name()))
+                .andExpect(jsonPath("$[1].bookingId").value(second.getId()))
+                .andExpect(jsonPath("$[1].status").value(REJECTED.name()))
+                .andExpect(jsonPath("$[2].bookingId").value(foreign.getId()))
+                .andExpect(jsonPath("$[2].error").exists())
+                .andExpect(jsonPath("$[3].bookingId").value(999))
+                .andExpect(jsonPath("$[3].error").exists());
+
+        performRequest(GET, "/bookings/" + first.getId(), ownerHeaders)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(APPROVED.name()));
+        performRequest(GET, "/bookings/" + foreign.getId(), ownerHeaders)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(WAITING.name()));
+    }
+
+    @Test
+    void exportBookingsByOwner() throws Exception {
+        User owner = createUser();
+        MultiValueMap<String, String> ownerHeaders = createHeaders(X_SHARER_USER_ID, owner.getId().toString());
+        Item item = createItem(ownerHeaders, true);
+        User booker = createUser();
+        MultiValueMap<String, String> bookerHeaders = createHeaders(X_SHARER_USER_ID, booker.getId().toString());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking first = createBooking(bookerHeaders, item.getId(), start, start.plusDays(1));
+        Booking second = createBooking(bookerHeaders, item.getId(), start.plusDays(1), start.plusDays(2));
+
+        MvcResult started = mockMvc.perform(get("/bookings/owner/export")
+                        .header(X_SHARER_USER_ID, owner.getId())
+                        .param("state", FUTURE.name()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String export = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        // Порядок тот же, что и у постраничной выдачи: от поздних бронирований к ранним
+        List<JsonNode> lines = export.lines().map(this::readTree).toList();
+        assertEquals(2, lines.size());
+        assertEquals(second.getId(), lines.get(0).get("id").asLong());
+        assertEquals(first.getId(), lines.get(1).get("id").asLong());
+        assertEquals(booker.getName(), lines.get(1).get("booker").get("name").asText());
+    }
+
+    @Test
+    void exportBookingsByUnknownOwner() throws Exception {
+        mockMvc.perform(get("/bookings/owner/export")
+                        .header(X_SHARER_USER_ID, 999))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getCachedBookingsByUserAfterUpdate() throws Exception {
+        User owner = createUser();
+        MultiValueMap<String, String> ownerHeaders = createHeaders(X_SHARER_USER_ID, owner.getId().toString());
+        Item item = createItem(ownerHeaders, true);
+        User booker = createUser();
+        MultiValueMap<String, String> bookerHeaders = createHeaders(X_SHARER_USER_ID, booker.getId().toString());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking booking = createBooking(bookerHeaders, item.getId(), start, start.plusDays(1));
+
+        performRequest(GET, "/bookings?state=" + WAITING, bookerHeaders)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        performRequest(GET, "/bookings?state=" + WAITING, bookerHeaders)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        assertEquals(1.0, bookingCacheGets("hit"));
+
+        performRequest(PATCH, "/bookings/" + booking.getId() + "?approved=true", ownerHeaders)
+                .andExpect(status().isOk());
+
+        performRequest(GET, "/bookings?state=" + WAITING, bookerHeaders)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        performRequest(GET, "/bookings?state=" + ALL, bookerHeaders)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(APPROVED.name()));
+
+        Booking second = createBooking(bookerHeaders, item.getId(), start.plusDays(1), start.plusDays(2));
+        performRequest(GET, "/bookings/owner?state=" + WAITING, ownerHeaders)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(second.getId()));
+    }
+
+    @Test
+    void getCachedBookingsByOwnerAfterStateChange() throws Exception {
+        User owner = createUser();
+        MultiValueMap<String, String> ownerHeaders = createHeaders(X_SHARER_USER_ID, owner.getId().toString());
+        Item item = createItem(ownerHeaders, true);
+        User booker = createUser();
+        MultiValueMap<String, String> bookerHeaders = createHeaders(X_SHARER_USER_ID, booker.getId().toString());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        createBooking(bookerHeaders, item.getId(), start, start.plusDays(1));
+
+        performRequest(GET, "/bookings/owner?state=" + FUTURE, ownerHeaders)
+                .andExpect(status().isOk());
+        performRequest(GET, "/bookings/owner?state=" + ALL, ownerHeaders)
+                .andExpect(status().isOk());
+        assertEquals(2.0, bookingCacheGets("miss"));
+
+        // Переход FUTURE -> CURRENT сбрасывает только списки этих двух состояний
+        bookingStateScheduler.advanceTo(start.plusMinutes(1));
+
+        performRequest(GET, "/bookings/owner?state=" + FUTURE, ownerHeaders)
+                .andExpect(status().isOk());
+        performRequest(GET, "/bookings/owner?state=" + ALL, ownerHeaders)
+                .andExpect(status().isOk());
+        assertEquals(3.0, bookingCacheGets("miss"));
+        assertEquals(1.0, bookingCacheGets("hit"));
+    }
+
+    private double bookingCacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "bookings")
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new RuntimeException("Ошибка при разборе JSON", e);
+        }
+    }
+}
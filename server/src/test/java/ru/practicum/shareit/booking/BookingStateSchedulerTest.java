@@ -0,0 +1,74 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStateChangedEvent;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.BookingStateScheduler;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.practicum.shareit.booking.model.BookingState.*;
+
+@SpringBootTest
+@RecordApplicationEvents
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookingStateSchedulerTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingStateScheduler scheduler;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void publishesTransitionsAtBookingBoundaries() {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@shareit.ru").build());
+        User booker = userRepository.save(User.builder().name("booker").email("booker@shareit.ru").build());
+        Item item = itemRepository.save(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusHours(1).withNano(0);
+        LocalDateTime end = start.plusDays(2);
+        Booking booking = bookingService.createBooking(booker.getId(), BookingCreateDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(end)
+                .build());
+
+        scheduler.advanceTo(start);
+        assertEquals(List.of(), stateEvents());
+
+        scheduler.advanceTo(start.plusSeconds(1));
+        assertEquals(List.of(new BookingStateChangedEvent(booking.getId(), item.getId(), booker.getId(),
+                owner.getId(), FUTURE, CURRENT, start)), stateEvents());
+
+        scheduler.advanceTo(end.plusSeconds(1));
+        assertEquals(new BookingStateChangedEvent(booking.getId(), item.getId(), booker.getId(),
+                owner.getId(), CURRENT, PAST, end), stateEvents().get(1));
+        assertEquals(2, stateEvents().size());
+    }
+
+    private List<BookingStateChangedEvent> stateEvents() {
+        return events.stream(BookingStateChangedEvent.class).toList();
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryStore;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ItemBookingSummaryStoreTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemBookingSummaryStore store;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void bookingCreationRefreshesSummary() {
+        Item item = createItem();
+        User booker = userRepository.save(User.builder().name("booker").email("booker@shareit.ru").build());
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Booking past = createBooking(booker, item, now.minusDays(3), now.minusDays(2));
+        Booking next = createBooking(booker, item, now.plusDays(1), now.plusDays(2));
+        createBooking(booker, item, now.plusDays(3), now.plusDays(4));
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertEquals(past.getId(), summary.getLastBooking().getId());
+        assertEquals(next.getId(), summary.getNextBooking().getId());
+        assertEquals(next.getStart(), summary.getValidUntil());
+    }
+
+    @Test
+    void rollForwardMovesSummaryPastBookingBoundaries() {
+        Item item = createItem();
+        User booker = userRepository.save(User.builder().name("booker").email("booker@shareit.ru").build());
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Booking first = createBooking(booker, item, now.plusDays(1), now.plusDays(2));
+        Booking second = createBooking(booker, item, now.plusDays(3), now.plusDays(4));
+
+        // Первое бронирование началось: до пересчёта сводка считается на лету
+        LocalDateTime during = now.plusDays(1).plusHours(1);
+        ItemBookingSummary computed = store.getSummaries(List.of(item.getId()), during).get(item.getId());
+        assertNull(computed.getLastBooking());
+        assertEquals(second.getId(), computed.getNextBooking().getId());
+
+        assertEquals(1, store.rollForward(during));
+        ItemBookingSummary rolled = summaryRepository.findById(item.getId()).orElseThrow();
+        assertTrue(rolled.isFresh(during));
+        assertNull(rolled.getLastBooking());
+        assertEquals(second.getId(), rolled.getNextBooking().getId());
+        assertEquals(first.getEnd(), rolled.getValidUntil());
+
+        LocalDateTime after = now.plusDays(2).plusHours(1);
+        assertEquals(1, store.rollForward(after));
+        assertEquals(first.getId(), summaryRepository.findById(item.getId()).orElseThrow().getLastBooking().getId());
+        assertEquals(0, store.rollForward(after));
+    }
+
+    private Item createItem() {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@shareit.ru").build());
+        return itemRepository.save(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    private Booking createBooking(User booker, Item item, LocalDateTime start, LocalDateTime end) {
+        BookingCreateDto dto = new BookingCreateDto();
+        dto.setItemId(item.getId());
+        dto.setStart(start);
+        dto.setEnd(end);
+        return bookingService.createBooking(booker.getId(), dto);
+    }
+}
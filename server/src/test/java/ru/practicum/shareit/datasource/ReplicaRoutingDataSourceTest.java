@@ -0,0 +1,105 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "shareit.datasource.replica.enabled=true",
+        "shareit.datasource.replica.url=jdbc:h2:mem:replica-${random.uuid};DB_CLOSE_DELAY=-1",
+        "shareit.datasource.replica.max-lag=PT5S",
+        "shareit.datasource.replica.check-interval=PT0S",
+        "shareit.datasource.replica.lag-query=SELECT seconds FROM replica_lag"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ReplicaRoutingDataSourceTest {
+    private static final long REPLICA_USER_ID = 1000L;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private UserService userService;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        // Вторая H2 изображает реплику без репликации, поэтому по данным видно, в какую базу ушёл запрос
+        Flyway.configure().dataSource(replicaDataSource).load().migrate();
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("CREATE TABLE replica_lag (seconds DOUBLE PRECISION)");
+        replica.update("INSERT INTO replica_lag VALUES (0)");
+        replica.update("INSERT INTO users (id, name, email) VALUES (?, 'replica', 'replica@shareit.ru')",
+                REPLICA_USER_ID);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        User user = saveUser();
+
+        assertEquals(Optional.of("replica"), readName(true, REPLICA_USER_ID));
+        assertEquals(Optional.empty(), readName(true, user.getId()));
+        assertEquals(Optional.of("primary"), readName(false, user.getId()));
+        assertEquals(Optional.empty(), readName(false, REPLICA_USER_ID));
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhileReplicaLags() {
+        User user = saveUser();
+
+        replica.update("UPDATE replica_lag SET seconds = 60");
+        assertEquals(Optional.of("primary"), readName(true, user.getId()));
+
+        replica.update("UPDATE replica_lag SET seconds = 1");
+        assertEquals(Optional.of("replica"), readName(true, REPLICA_USER_ID));
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhenReplicaIsDown() {
+        User user = saveUser();
+
+        replicaDataSource.close();
+
+        assertEquals(Optional.of("primary"), readName(true, user.getId()));
+    }
+
+    @Test
+    void cacheIsFilledFromPrimary() {
+        User user = saveUser();
+        // Реплика ещё видит старое имя
+        replica.update("INSERT INTO users (id, name, email) VALUES (?, 'stale', 'stale@shareit.ru')", user.getId());
+
+        assertEquals("primary", userService.getUserById(user.getId()).getName());
+        assertEquals(Optional.of("stale"), readName(true, user.getId()));
+    }
+
+    private User saveUser() {
+        return userRepository.save(User.builder().name("primary").email("primary@shareit.ru").build());
+    }
+
+    private Optional<String> readName(boolean readOnly, long userId) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> userRepository.findById(userId).map(User::getName));
+    }
+}
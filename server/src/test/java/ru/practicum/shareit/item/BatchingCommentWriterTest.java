@@ -0,0 +1,246 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.EntityVersions;
+import ru.practicum.shareit.exception.OverloadedException;
+import ru.practicum.shareit.exception.WrongException;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.BatchingCommentWriter;
+import ru.practicum.shareit.item.service.CommentWriter;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "shareit.comments.writer=batching")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BatchingCommentWriterTest {
+    @TempDir
+    static Path walDir;
+
+    @Autowired
+    private CommentWriter commentWriter;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityVersions entityVersions;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User author;
+    private Item item;
+
+    @DynamicPropertySource
+    static void walPath(DynamicPropertyRegistry registry) {
+        registry.add("shareit.comments.batching.wal-path", () -> walDir.resolve("comments.wal").toString());
+    }
+
+    @BeforeEach
+    void setUpItem() {
+        author = userRepository.save(User.builder().name("author").email("author@shareit.ru").build());
+        item = itemRepository.save(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .owner(author)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .item(item)
+                .user(author)
+                .status(BookingStatus.APPROVED)
+                .build());
+    }
+
+    @Test
+    void writesCommentInBackground() throws Exception {
+        Comment written = write(commentWriter, "Комментарий");
+
+        assertNotNull(written.getId());
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (commentRepository.findById(written.getId()).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals("Комментарий", commentRepository.findById(written.getId()).orElseThrow().getText());
+    }
+
+    @Test
+    void replaysWriteAheadLogOnStartup() throws Exception {
+        Path wal = walDir.resolve("replay.wal");
+        Path segment = walDir.resolve("replay.wal.1");
+        String line = objectMapper.writeValueAsString(Map.of(
+                "id", 1_000_000L,
+                "itemId", item.getId(),
+                "authorId", author.getId(),
+                "text", "Из журнала",
+                "createdAt", LocalDateTime.now().withNano(0).toString()));
+        // Вторая строка повторяет первую, а третья оборвана сбоем
+        Files.writeString(segment, line + "\n" + line + "\n{\"id\":10");
+
+        newWriter(wal, 10, Duration.ofMillis(200)).stop();
+
+        assertEquals("Из журнала", commentRepository.findById(1_000_000L).orElseThrow().getText());
+        assertEquals(1, commentRepository.count());
+        assertFalse(Files.exists(segment));
+    }
+
+    @Test
+    void deletesFlushedSegmentsUnderLoad() throws Exception {
+        // Сегмент на одну строку: каждый комментарий уходит в свой сегмент, а очередь не пустеет ни разу
+        Path wal = walDir.resolve("segments.wal");
+        BatchingCommentWriter writer = newWriter(wal, 1, 100, Duration.ofMillis(50));
+        try {
+            for (int i = 0; i < 20; i++) {
+                write(writer, "Комментарий " + i);
+            }
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while ((commentRepository.count() < 20 || segments(wal) > 1) && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(20, commentRepository.count());
+            // Остаётся только текущий пустой сегмент
+            assertEquals(1, segments(wal));
+        } finally {
+            writer.stop();
+        }
+        assertEquals(0, segments(wal));
+    }
+
+    @Test
+    void retriesWhenTransactionCannotStart() throws Exception {
+        // Первые две транзакции записи не открываются, как при недоступной базе
+        AtomicInteger failures = new AtomicInteger(2);
+        PlatformTransactionManager unavailable = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                if (failures.getAndDecrement() > 0) {
+                    throw new CannotCreateTransactionException("База недоступна");
+                }
+                return transactionManager.getTransaction(definition);
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+                transactionManager.commit(status);
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+                transactionManager.rollback(status);
+            }
+        };
+        BatchingCommentWriter writer = newWriter(unavailable, walDir.resolve("retry.wal"), 16 * 1024, 10,
+                Duration.ofMillis(50));
+        try {
+            Comment written = write(writer, "После сбоя");
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (commentRepository.findById(written.getId()).isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals("После сбоя", commentRepository.findById(written.getId()).orElseThrow().getText());
+        } finally {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void rejectsCommentWithoutFinishedBooking() throws Exception {
+        bookingRepository.deleteAll();
+
+        assertThrows(WrongException.class, () -> write(commentWriter, "Без бронирования"));
+        assertEquals(0, commentRepository.count());
+    }
+
+    @Test
+    void rejectsCommentsWhenQueueIsFull() throws Exception {
+        // Пачка ждёт минуту, поэтому первый комментарий держит единственное место в очереди
+        BatchingCommentWriter writer = newWriter(walDir.resolve("full.wal"), 1, Duration.ofMinutes(1));
+        try {
+            Comment accepted = write(writer, "Первый");
+
+            assertThrows(OverloadedException.class, () -> write(writer, "Второй"));
+            assertTrue(commentRepository.findById(accepted.getId()).isEmpty());
+        } finally {
+            writer.stop();
+        }
+        // Остановка дописывает уже принятые комментарии
+        assertEquals(1, commentRepository.count());
+    }
+
+    private BatchingCommentWriter newWriter(Path wal, int capacity, Duration flushInterval) throws Exception {
+        return newWriter(wal, 16 * 1024, capacity, flushInterval);
+    }
+
+    private BatchingCommentWriter newWriter(Path wal, long segmentBytes, int capacity, Duration flushInterval)
+            throws Exception {
+        return newWriter(transactionManager, wal, segmentBytes, capacity, flushInterval);
+    }
+
+    private BatchingCommentWriter newWriter(PlatformTransactionManager writerTransactions, Path wal,
+                                            long segmentBytes, int capacity, Duration flushInterval)
+            throws Exception {
+        return new BatchingCommentWriter(jdbcTemplate, writerTransactions, entityManager, entityVersions,
+                objectMapper, new SimpleMeterRegistry(), wal, segmentBytes, capacity, 200, flushInterval,
+                Duration.ofMillis(10), Duration.ofMillis(100));
+    }
+
+    private static long segments(Path wal) throws Exception {
+        try (Stream<Path> files = Files.list(wal.getParent())) {
+            return files.filter(file -> file.getFileName().toString().startsWith(wal.getFileName() + ".")).count();
+        }
+    }
+
+    private Comment write(CommentWriter writer, String text) {
+        // Id выдаёт последовательность Hibernate, которой нужна сессия
+        return new TransactionTemplate(transactionManager).execute(status -> writer.write(Comment.builder()
+                .text(text)
+                .item(item)
+                .user(author)
+                .createdAt(LocalDateTime.now())
+                .build()));
+    }
+}
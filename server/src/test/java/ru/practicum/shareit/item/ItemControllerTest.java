@@ -1,23 +1,50 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import ru.practicum.shareit.AbstractControllerTest;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.utils.RandomUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.utils.HttpMethodEnum.*;
 
 class ItemControllerTest extends AbstractControllerTest {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
     @Test
     void createItemTest() throws Exception {
         User user = createUser();
@@ -101,6 +128,34 @@ class ItemControllerTest extends AbstractControllerTest {
                 .andExpect(jsonPath("$.available").value(item.getAvailable()));
     }
 
+    @Test
+    void getNotModifiedItemById() throws Exception {
+        User user = createUser();
+        MultiValueMap<String, String> headers = createHeaders(X_SHARER_USER_ID, user.getId().toString());
+        Item item = createItem(headers, true);
+
+        String etag = performRequest(GET, "/items/" + item.getId(), headers)
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        MultiValueMap<String, String> conditional = createHeaders(X_SHARER_USER_ID, user.getId().toString());
+        conditional.add("If-None-Match", etag);
+        performRequest(GET, "/items/" + item.getId(), conditional)
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        performRequest(PATCH, "/items/" + item.getId(), createJson(Map.of("name", "Updated Item")), headers)
+                .andExpect(status().isOk());
+
+        String updatedEtag = performRequest(GET, "/items/" + item.getId(), conditional)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Updated Item"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, updatedEtag);
+    }
+
     @Test
     void getNonExistentItemByIdTest() throws Exception {
         User user = createUser();
@@ -130,6 +185,176 @@ class ItemControllerTest extends AbstractControllerTest {
                 .andExpect(jsonPath("$[1].available").value(item2.getAvailable()));
     }
 
+    @Test
+    void getItemsByOwnerWithBookingsAndComments() throws Exception {
+        User owner = createUser();
+        MultiValueMap<String, String> ownerHeaders = createHeaders(X_SHARER_USER_ID, owner.getId().toString());
+        User booker = createUser();
+        MultiValueMap<String, String> bookerHeaders = createHeaders(X_SHARER_USER_ID, booker.getId().toString());
+
+        Item item = createItemWithHistory(ownerHeaders, bookerHeaders, booker);
+
+        performRequest(GET, "/items", ownerHeaders)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(item.getId()))
+                .andExpect(jsonPath("$[0].lastBooking").exists())
+                .andExpect(jsonPath("$[0].nextBooking").exists())
+                .andExpect(jsonPath("$[0].comments.length()").value(1));
+    }
+
+    @Test
+    void createItemsInBatches() throws Exception {
+        User owner = createUser();
+        MultiValueMap<String, String> headers = createHeaders(X_SHARER_USER_ID, owner.getId().toString());
+
+        int count = 120;
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(itemDtoToMap(RandomUtils.getRandomItem()));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        performRequest(POST, "/items/batch", objectMapper.writeValueAsString(items), headers)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(count))
+                .andExpect(jsonPath("$[0].id").exists());
+
+        // На каждую пачку из 50 строк — одно обращение к последовательности и один INSERT-батч,
+        // плюс не больше одного запроса владельца
+        long batches = (count + 49) / 50;
+        assertEquals(count, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 2 * batches + 1,
+                () -> "Подготовлено запросов: " + statistics.getPrepareStatementCount());
+
+        performRequest(GET, "/items", headers)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(count));
+    }
+
+    @Test
+    void importItems() throws Exception {
+        User owner = createUser();
+        String ndjson = String.join("\n",
+                "{\"name\": \"Дрель\", \"description\": \"Ударная\", \"available\": true}",
+                "{\"description\": \"Без названия\", \"available\": true}",
+                "",
+                "{\"name\": \"Пила\", \"description\": \"Цепная\", \"available\": false}",
+                "{\"name\": oops}");
+
+        MvcResult started = mockMvc.perform(post("/items/import")
+                        .header(X_SHARER_USER_ID, owner.getId())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String report = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<JsonNode> lines = report.lines().map(this::readTree).toList();
+        assertEquals(4, lines.size());
+        assertEquals(1, lines.get(0).get("line").asLong());
+        assertTrue(lines.get(0).get("id").isNumber());
+        assertEquals(2, lines.get(1).get("line").asLong());
+        assertEquals("Наименование не может быть пустым", lines.get(1).get("error").asText());
+        assertEquals(4, lines.get(2).get("line").asLong());
+        assertTrue(lines.get(2).get("id").isNumber());
+        assertEquals(5, lines.get(3).get("line").asLong());
+        assertTrue(lines.get(3).get("error").asText().startsWith("Некорректный JSON"));
+
+        performRequest(GET, "/items", createHeaders(X_SHARER_USER_ID, owner.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void importItemsForUnknownUser() throws Exception {
+        mockMvc.perform(post("/items/import")
+                        .header(X_SHARER_USER_ID, 999)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\": \"Дрель\", \"description\": \"Ударная\", \"available\": true}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void exportItems() throws Exception {
+        User owner = createUser();
+        MultiValueMap<String, String> ownerHeaders = createHeaders(X_SHARER_USER_ID, owner.getId().toString());
+        Item first = createItem(ownerHeaders, true);
+        Item second = createItem(ownerHeaders, false);
+        User other = createUser();
+        createItem(createHeaders(X_SHARER_USER_ID, other.getId().toString()), true);
+
+        MvcResult started = mockMvc.perform(get("/items/export")
+                        .header(X_SHARER_USER_ID, owner.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String export = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<JsonNode> lines = export.lines().map(this::readTree).toList();
+        assertEquals(2, lines.size());
+        assertEquals(first.getId(), lines.get(0).get("id").asLong());
+        assertEquals(first.getName(), lines.get(0).get("name").asText());
+        assertTrue(lines.get(0).get("available").asBoolean());
+        assertEquals(second.getId(), lines.get(1).get("id").asLong());
+        assertTrue(lines.get(1).get("requestId").isNull());
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new RuntimeException("Ошибка при разборе JSON", e);
+        }
+    }
+
+    @Test
+    void getItemsByOwnerStatementCountDoesNotGrow() throws Exception {
+        User owner = createUser();
+        MultiValueMap<String, String> ownerHeaders = createHeaders(X_SHARER_USER_ID, owner.getId().toString());
+        User booker = createUser();
+        MultiValueMap<String, String> bookerHeaders = createHeaders(X_SHARER_USER_ID, booker.getId().toString());
+
+        createItemWithHistory(ownerHeaders, bookerHeaders, booker);
+        long statementsForOneItem = countStatements(ownerHeaders);
+
+        for (int i = 0; i < 10; i++) {
+            createItemWithHistory(ownerHeaders, bookerHeaders, booker);
+        }
+        long statementsForManyItems = countStatements(ownerHeaders);
+
+        assertEquals(statementsForOneItem, statementsForManyItems);
+    }
+
+    private Item createItemWithHistory(MultiValueMap<String, String> ownerHeaders,
+                                       MultiValueMap<String, String> bookerHeaders,
+                                       User booker) throws Exception {
+        Item item = createItem(ownerHeaders, true);
+        LocalDateTime now = LocalDateTime.now();
+        createBooking(bookerHeaders, item.getId(), now.minusDays(2), now.minusDays(1));
+        createBooking(bookerHeaders, item.getId(), now.plusDays(1), now.plusDays(2));
+        commentRepository.save(Comment.builder()
+                .text("Comment")
+                .item(item)
+                .user(booker)
+                .createdAt(now)
+                .build());
+        return item;
+    }
+
+    private long countStatements(MultiValueMap<String, String> headers) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        performRequest(GET, "/items", headers)
+                .andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
     @Test
     void searchItems() throws Exception {
         User user = createUser();
@@ -145,6 +370,97 @@ class ItemControllerTest extends AbstractControllerTest {
                 .andExpect(jsonPath("$[0].name").value(item.getName()));
     }
 
+    @Test
+    void searchItemsOrderedByRelevance() throws Exception {
+        User user = createUser();
+        MultiValueMap<String, String> headers = createHeaders(X_SHARER_USER_ID, user.getId().toString());
+
+        Long byDescription = createItem(headers, "Инструмент", "Аккумуляторная дрель");
+        Long byName = createItem(headers, "Ударная дрель", "Мощная");
+        Long byPrefix = createItem(headers, "Дрель", "Обычная");
+
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("text", "дрель");
+
+        performRequest(GET, "/items/search", params, headers)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value(byPrefix))
+                .andExpect(jsonPath("$[1].id").value(byName))
+                .andExpect(jsonPath("$[2].id").value(byDescription));
+
+        params.add("from", "1");
+        params.add("size", "1");
+
+        performRequest(GET, "/items/search", params, headers)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(byName));
+    }
+
+    @Test
+    void searchItemsByShortTextFromOffset() throws Exception {
+        User user = createUser();
+        MultiValueMap<String, String> headers = createHeaders(X_SHARER_USER_ID, user.getId().toString());
+
+        createItem(headers, "Пила", "Ручная");
+        Long second = createItem(headers, "Пилка", "Для ногтей");
+        Long third = createItem(headers, "Напильник", "Плоский");
+
+        // Короче триграммы: поиск идёт в базе, from не кратен size
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("text", "пи");
+        params.add("from", "1");
+        params.add("size", "2");
+
+        performRequest(GET, "/items/search", params, headers)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(second))
+                .andExpect(jsonPath("$[1].id").value(third));
+    }
+
+    @Test
+    void searchItemsAfterUpdate() throws Exception {
+        User user = createUser();
+        MultiValueMap<String, String> headers = createHeaders(X_SHARER_USER_ID, user.getId().toString());
+        Long itemId = createItem(headers, "Молоток", "Тяжелый");
+
+        performRequest(PATCH, "/items/" + itemId, createJson(Map.of("name", "Кувалда")), headers)
+                .andExpect(status().isOk());
+
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("text", "молоток");
+        performRequest(GET, "/items/search", params, headers)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        params.set("text", "кувалда");
+        performRequest(GET, "/items/search", params, headers)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(itemId));
+
+        performRequest(PATCH, "/items/" + itemId, createJson(Map.of("available", false)), headers)
+                .andExpect(status().isOk());
+
+        performRequest(GET, "/items/search", params, headers)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    private Long createItem(MultiValueMap<String, String> headers, String name, String description) throws Exception {
+        String json = createJson(Map.of(
+                "name", name,
+                "description", description,
+                "available", true
+        ));
+        String response = performRequest(POST, "/items", json, headers)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
     @Test
     void searchItemsWithEmptyRequest() throws Exception {
         User user = createUser();
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemImporter;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ItemImporterTest {
+    private static final int ROWS = 1_600;
+
+    @Autowired
+    private ItemImporter itemImporter;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void importKeepsPersistenceContextSmall() throws Exception {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@shareit.ru").build());
+        String ndjson = IntStream.range(0, ROWS)
+                .mapToObj(i -> "{\"name\": \"Вещь " + i + "\", \"description\": \"Описание\", \"available\": true}")
+                .collect(Collectors.joining("\n"));
+
+        // Как при open-in-view: один EntityManager на всю загрузку
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            itemImporter.importItems(owner.getId(),
+                    new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), new ByteArrayOutputStream());
+
+            int managed = entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+            assertTrue(managed < 10, () -> "Сущностей в контексте после загрузки: " + managed);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+        assertEquals(ROWS, itemRepository.count());
+    }
+}
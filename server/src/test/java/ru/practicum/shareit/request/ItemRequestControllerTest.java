@@ -1,18 +1,36 @@
 package ru.practicum.shareit.request;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.MultiValueMap;
 import ru.practicum.shareit.AbstractControllerTest;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.pagination.KeysetPage;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.utils.RandomUtils;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.utils.HttpMethodEnum.GET;
 import static ru.practicum.shareit.utils.HttpMethodEnum.POST;
 
 class ItemRequestControllerTest extends AbstractControllerTest {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CommentRepository commentRepository;
 
     @Test
     void createItem() throws Exception {
@@ -43,6 +61,31 @@ class ItemRequestControllerTest extends AbstractControllerTest {
                 .andExpect(jsonPath("$.length()").value(1));
     }
 
+    @Test
+    void getUserRequestsWithItemsInConstantStatements() throws Exception {
+        User requestor = createUser();
+        MultiValueMap<String, String> requestorHeaders = createHeaders(X_SHARER_USER_ID, requestor.getId().toString());
+        User responder = createUser();
+
+        createAnsweredRequest(requestorHeaders, responder);
+        long statementsForOneRequest = countStatements(requestorHeaders);
+
+        for (int i = 0; i < 10; i++) {
+            createAnsweredRequest(requestorHeaders, responder);
+        }
+        long statementsForManyRequests = countStatements(requestorHeaders);
+
+        assertEquals(statementsForOneRequest, statementsForManyRequests);
+        // Проверка пользователя, запросы и ответы на них вместе с комментариями
+        assertTrue(statementsForManyRequests <= 3, () -> "Подготовлено запросов: " + statementsForManyRequests);
+
+        performRequest(GET, "/requests", requestorHeaders)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(11))
+                .andExpect(jsonPath("$[0].items.length()").value(1))
+                .andExpect(jsonPath("$[0].items[0].comments.length()").value(1));
+    }
+
     @Test
     void getAllRequests() throws Exception {
         User user1 = createUser();
@@ -61,6 +104,43 @@ class ItemRequestControllerTest extends AbstractControllerTest {
                 .andExpect(jsonPath("$.length()").value(1));
     }
 
+    @Test
+    void getAllRequestsByPages() throws Exception {
+        User user1 = createUser();
+        MultiValueMap<String, String> user1Headers = createHeaders(X_SHARER_USER_ID, user1.getId().toString());
+
+        User user2 = createUser();
+        MultiValueMap<String, String> user2Headers = createHeaders(X_SHARER_USER_ID, user2.getId().toString());
+
+        long first = createRequest(user1Headers);
+        long second = createRequest(user1Headers);
+        createRequest(user2Headers);
+        long third = createRequest(user1Headers);
+
+        String cursor = performRequest(GET, "/requests/all?size=2", user2Headers)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(third))
+                .andExpect(jsonPath("$[1].id").value(second))
+                .andExpect(header().exists(KeysetPage.NEXT_CURSOR_HEADER))
+                .andReturn().getResponse().getHeader(KeysetPage.NEXT_CURSOR_HEADER);
+
+        performRequest(GET, "/requests/all?size=2&cursor=" + cursor, user2Headers)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(first))
+                .andExpect(header().doesNotExist(KeysetPage.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getAllRequestsWithWrongSizeShouldFail() throws Exception {
+        User user = createUser();
+        MultiValueMap<String, String> headers = createHeaders(X_SHARER_USER_ID, user.getId().toString());
+
+        performRequest(GET, "/requests/all?size=0", headers)
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getRequestById() throws Exception {
         User user = createUser();
@@ -81,6 +161,41 @@ class ItemRequestControllerTest extends AbstractControllerTest {
                 .andExpect(jsonPath("$.description").value(requestDto.getDescription()));
     }
 
+    @Test
+    void getNotModifiedRequestById() throws Exception {
+        User user = createUser();
+        MultiValueMap<String, String> headers = createHeaders(X_SHARER_USER_ID, user.getId().toString());
+
+        String response = performRequest(POST, "/requests", createJson(itemRequestDtoToMap(
+                RandomUtils.getRandomItemRequest())), headers)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Long requestId = objectMapper.readTree(response).get("id").asLong();
+
+        String etag = performRequest(GET, "/requests/" + requestId, headers)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        MultiValueMap<String, String> conditional = createHeaders(X_SHARER_USER_ID, user.getId().toString());
+        conditional.add("If-None-Match", etag);
+        performRequest(GET, "/requests/" + requestId, conditional)
+                .andExpect(status().isNotModified());
+
+        // Ответ на запрос попадает в его выдачу, поэтому тег запроса меняется
+        User responder = createUser();
+        performRequest(POST, "/items", createJson(Map.of(
+                "name", "Дрель",
+                "description", "Ударная",
+                "available", true,
+                "requestId", requestId)), createHeaders(X_SHARER_USER_ID, responder.getId().toString()))
+                .andExpect(status().isOk());
+
+        performRequest(GET, "/requests/" + requestId, conditional)
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.items.length()").value(1));
+    }
+
     @Test
     void getRequestWithWrongIdShouldFail() throws Exception {
         User user = createUser();
@@ -89,4 +204,38 @@ class ItemRequestControllerTest extends AbstractControllerTest {
         performRequest(GET, "/requests/999", headers)
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    private void createAnsweredRequest(MultiValueMap<String, String> requestorHeaders, User responder)
+            throws Exception {
+        long requestId = createRequest(requestorHeaders);
+        String response = performRequest(POST, "/items", createJson(Map.of(
+                "name", "Дрель",
+                "description", "Ударная",
+                "available", true,
+                "requestId", requestId)), createHeaders(X_SHARER_USER_ID, responder.getId().toString()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        commentRepository.save(Comment.builder()
+                .text("Comment")
+                .item(Item.builder().id(objectMapper.readTree(response).get("id").asLong()).build())
+                .user(responder)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private long countStatements(MultiValueMap<String, String> headers) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        performRequest(GET, "/requests", headers)
+                .andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long createRequest(MultiValueMap<String, String> headers) throws Exception {
+        String json = createJson(itemRequestDtoToMap(RandomUtils.getRandomItemRequest()));
+        String response = performRequest(POST, "/requests", json, headers)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+}
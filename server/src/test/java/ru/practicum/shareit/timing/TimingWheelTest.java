@@ -0,0 +1,71 @@
+package ru.practicum.shareit.timing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+    private static final long TICK = 1000;
+
+    @Test
+    void firesOnFirstTickNotBeforeDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 4, 0);
+        wheel.schedule(2500, "a");
+
+        assertEquals(List.of(), wheel.advance(2999));
+        assertEquals(List.of("a"), wheel.advance(3000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesFromUpperLevels() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 4, 0);
+        wheel.schedule(9000, "level1");
+        wheel.schedule(70_000, "level2");
+
+        assertEquals(List.of(), wheel.advance(8999));
+        assertEquals(List.of("level1"), wheel.advance(9000));
+        assertEquals(List.of(), wheel.advance(69_999));
+        assertEquals(List.of("level2"), wheel.advance(70_000));
+    }
+
+    @Test
+    void overdueTimersFireOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 4, 10_000);
+        wheel.schedule(5000, "late");
+
+        assertEquals(List.of("late"), wheel.advance(10_000));
+    }
+
+    @Test
+    void firesEveryTimerOnceInDeadlineOrder() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 8, 0);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            long deadline = random.nextLong(1, 10_000_000);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+
+        // Время идёт неравномерными шагами, как у тикера после пауз
+        List<Long> fired = new ArrayList<>();
+        for (long now = 0; now <= 10_000_000 + TICK; now += random.nextLong(1, 50_000)) {
+            long at = now;
+            for (Long deadline : wheel.advance(at)) {
+                assertTrue(deadline <= at, () -> "Таймер " + deadline + " сработал раньше срока в " + at);
+                assertTrue(at - deadline < TICK + 50_000, () -> "Таймер " + deadline + " опоздал до " + at);
+                fired.add(deadline);
+            }
+        }
+        fired.addAll(wheel.advance(Long.MAX_VALUE / 2));
+
+        assertEquals(deadlines.stream().sorted().toList(), fired.stream().sorted().toList());
+        assertEquals(0, wheel.size());
+    }
+}
@@ -1,16 +1,21 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import ru.practicum.shareit.AbstractControllerTest;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.utils.HttpMethodEnum.*;
 
 class UserControllerTest extends AbstractControllerTest {
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Test
     void createUserTest() throws Exception {
@@ -89,4 +94,51 @@ class UserControllerTest extends AbstractControllerTest {
                 .andExpect(jsonPath("$.error").value("Not Found"))
                 .andExpect(jsonPath("$.message.error").exists());
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateCachedUser() throws Exception {
+        User user = createUser();
+
+        performRequest(GET, "/users/" + user.getId())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(user.getName()));
+
+        performRequest(PATCH, "/users/" + user.getId(), createJson(Map.of("name", "Updated Name")))
+                .andExpect(status().isOk());
+
+        performRequest(GET, "/users/" + user.getId())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Updated Name"))
+                .andExpect(jsonPath("$.email").value(user.getEmail()));
+    }
+
+    @Test
+    void deleteCachedUser() throws Exception {
+        User user = createUser();
+
+        performRequest(GET, "/users/" + user.getId())
+                .andExpect(status().isOk());
+
+        performRequest(DELETE, "/users/" + user.getId())
+                .andExpect(status().isOk());
+
+        performRequest(GET, "/users/" + user.getId())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void userCacheMetrics() throws Exception {
+        User user = createUser();
+
+        performRequest(GET, "/users/" + user.getId())
+                .andExpect(status().isOk());
+        performRequest(GET, "/users/" + user.getId())
+                .andExpect(status().isOk());
+
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+                .tag("cache", "users")
+                .tag("result", "hit")
+                .functionCounter()
+                .count());
+    }
+}
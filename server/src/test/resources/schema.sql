@@ -1,62 +0,0 @@
-CREATE TABLE IF NOT EXISTS users
-(
-    id    BIGSERIAL PRIMARY KEY,
-    name  VARCHAR(255)        NOT NULL,
-    email VARCHAR(512) UNIQUE NOT NULL
-);
-
-CREATE TABLE IF NOT EXISTS requests
-(
-    id           BIGSERIAL PRIMARY KEY,
-    description  TEXT   NOT NULL,
-    requestor_id BIGINT NOT NULL,
-    created_at   TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (requestor_id) REFERENCES users (id)
-);
-
-CREATE TABLE IF NOT EXISTS items
-(
-    id           BIGSERIAL PRIMARY KEY,
-    name         VARCHAR(255) NOT NULL,
-    description  TEXT         NOT NULL,
-    is_available BOOLEAN      NOT NULL,
-    owner_id     BIGINT       NOT NULL,
-    request_id   BIGINT,
-    FOREIGN KEY (owner_id) REFERENCES users (id),
-    FOREIGN KEY (request_id) REFERENCES requests (id)
-);
-
-CREATE TABLE IF NOT EXISTS item_request
-(
-    id         BIGSERIAL PRIMARY KEY,
-    created_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
-    text       TEXT   NOT NULL,
-    item_id    BIGINT NOT NULL,
-    author_id  BIGINT NOT NULL,
-
-    FOREIGN KEY (author_id) REFERENCES users (id),
-    FOREIGN KEY (item_id) REFERENCES items (id)
-);
-
-CREATE TABLE IF NOT EXISTS bookings
-(
-    id         BIGSERIAL PRIMARY KEY,
-    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
-    end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
-    item_id    BIGINT                      NOT NULL,
-    booker_id  BIGINT                      NOT NULL,
-    status     VARCHAR(15)                 NOT NULL,
-    FOREIGN KEY (item_id) REFERENCES items (id),
-    FOREIGN KEY (booker_id) REFERENCES users (id)
-);
-
-CREATE TABLE IF NOT EXISTS comments
-(
-    id         BIGSERIAL PRIMARY KEY,
-    text       TEXT   NOT NULL,
-    item_id    BIGINT NOT NULL,
-    author_id  BIGINT NOT NULL,
-    created_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (item_id) REFERENCES items (id),
-    FOREIGN KEY (author_id) REFERENCES users (id)
-);